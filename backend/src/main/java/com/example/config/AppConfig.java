@@ -42,6 +42,7 @@ public class AppConfig {
         ));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "X-Requested-With"));
+        configuration.setExposedHeaders(Arrays.asList("X-Total-Count", "ETag"));
         configuration.setAllowCredentials(true);
         configuration.setMaxAge(3600L);
         
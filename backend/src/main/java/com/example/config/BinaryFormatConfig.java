@@ -0,0 +1,88 @@
+package com.example.config;
+
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+
+/**
+ * Compact binary alternatives to JSON for the read endpoints. A client opts in with
+ * {@code Accept: application/cbor} or {@code Accept: application/x-jackson-smile}; everyone else keeps
+ * getting JSON. The mappers come from Boot's builder so dates and the other Jackson settings match JSON.
+ */
+@Configuration
+public class BinaryFormatConfig {
+
+    public static final String CBOR = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String SMILE = "application/x-jackson-smile";
+
+    // In the order the endpoints declare them in produces; JSON wins a tie, as it does in Spring's negotiation
+    private static final List<MediaType> FORMATS =
+        List.of(MediaType.APPLICATION_JSON, MediaType.APPLICATION_CBOR, MediaType.parseMediaType(SMILE));
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.createXmlMapper(false).factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.createXmlMapper(false).factory(new SmileFactory()).build());
+    }
+
+    /**
+     * The strong validator for the representation this request negotiates: {@code "feed-3"} becomes
+     * {@code "feed-3-cbor"}. The three formats of a resource are different bytes under one URL
+     * (Vary: Accept), so they must not share a tag, or a cache revalidating one could be told another is fresh.
+     */
+    public static String representationETag(String etag, WebRequest request) {
+        return etag.substring(0, etag.length() - 1) + "-" + formatName(negotiate(request.getHeader(HttpHeaders.ACCEPT))) + "\"";
+    }
+
+    // Highest quality wins, then an exact type over a wildcard, then the produces order
+    private static MediaType negotiate(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return MediaType.APPLICATION_JSON;
+        }
+        MediaType best = MediaType.APPLICATION_JSON;
+        double bestQuality = 0;
+        boolean bestExact = false;
+        for (MediaType format : FORMATS) {
+            for (MediaType candidate : accepted) {
+                if (!candidate.includes(format)) {
+                    continue;
+                }
+                double quality = candidate.getQualityValue();
+                boolean exact = !candidate.isWildcardType() && !candidate.isWildcardSubtype();
+                if (quality > bestQuality || (quality == bestQuality && quality > 0 && exact && !bestExact)) {
+                    best = format;
+                    bestQuality = quality;
+                    bestExact = exact;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static String formatName(MediaType format) {
+        if (MediaType.APPLICATION_CBOR.equalsTypeAndSubtype(format)) {
+            return "cbor";
+        }
+        return SMILE.equals(format.toString()) ? "smile" : "json";
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Background housekeeping jobs (reclaiming unreferenced images)
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
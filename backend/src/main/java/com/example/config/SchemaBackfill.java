@@ -0,0 +1,166 @@
+package com.example.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Data fixes and indexes the entities rely on, applied at startup. The schema is kept up to date by
+ * ddl-auto: update, which adds columns and sequences but never fills them and cannot express partial
+ * indexes, and the Liquibase changelog is not run. So those steps of the migrations are repeated
+ * here. Every statement is idempotent. They run after Hibernate has updated the schema and before
+ * the web server takes requests; a failure stops startup instead of serving inconsistent data.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class SchemaBackfill {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void apply() {
+        backfillDailyStats();
+        advanceSequences();
+        seedReadPointers();
+        backfillConversationKeys();
+        backfillItemDeleted();
+        createUserLookupIndexes();
+        backfillAvatarVersions();
+        clearStoredAvatarLinks();
+        createStoredImageIndexes();
+    }
+
+    // 0013b: the rollups are only maintained from deploy on, so history is counted once from the raw
+    // tables. Each table is filled only while it is still empty; once the application has written to
+    // it, it already holds everything (deletion dates were never recorded, so deleted_count starts at zero)
+    private void backfillDailyStats() {
+        int items = jdbcTemplate.update(
+            "INSERT INTO daily_item_stats (stat_date, type, category, location_id, created_count, deleted_count) " +
+            "SELECT CAST(date_shared AS DATE), type, category, COALESCE(location_id, 0), COUNT(*), 0 " +
+            "FROM item WHERE date_shared IS NOT NULL AND NOT EXISTS (SELECT 1 FROM daily_item_stats) " +
+            "GROUP BY CAST(date_shared AS DATE), type, category, COALESCE(location_id, 0)");
+        int days = jdbcTemplate.update(
+            "INSERT INTO daily_activity_stats (stat_date, messages_sent, post_reports, user_reports) " +
+            "SELECT day, SUM(messages), SUM(post_reports), SUM(user_reports) FROM (" +
+            "SELECT CAST(sent_at AS DATE) AS day, 1 AS messages, 0 AS post_reports, 0 AS user_reports FROM messages WHERE sent_at IS NOT NULL " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 0, 1, 0 FROM reports " +
+            "UNION ALL SELECT CAST(created_at AS DATE), 0, 0, 1 FROM user_reports" +
+            ") activity WHERE NOT EXISTS (SELECT 1 FROM daily_activity_stats) GROUP BY day");
+        if (items > 0 || days > 0) {
+            log.info("Backfilled {} daily post buckets and {} activity days", items, days);
+        }
+    }
+
+    // 0015: pooled ids (allocation size 50) must start past the ids already in the tables.
+    // Never moves a sequence backwards, so a restart does not hand out used ranges again
+    private void advanceSequences() {
+        advanceSequence("item_seq", "item", "item_id");
+        advanceSequence("messages_seq", "messages", "message_id");
+        advanceSequence("message_images_seq", "message_images", "id");
+    }
+
+    // 0016/0016b: unread is now "above the read pointer", so conversations read before the pointers
+    // existed get one from the legacy is_read flag. Pairs that already have a pointer are left alone
+    private void seedReadPointers() {
+        int seeded = jdbcTemplate.update(
+            "INSERT INTO conversation_read_pointers (user_id, partner_id, last_read_message_id, updated_at) " +
+            "SELECT receiver_id, sender_id, MAX(message_id), now() FROM messages WHERE is_read GROUP BY receiver_id, sender_id " +
+            "ON CONFLICT (user_id, partner_id) DO NOTHING");
+        if (seeded > 0) {
+            log.info("Seeded {} conversation read pointers", seeded);
+        }
+        // Unread counts scan only the receiver's undeleted messages above the pointer
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_messages_unread_by_receiver " +
+            "ON messages (receiver_id, sender_id, message_id) " +
+            "WHERE is_deleted_completely = false AND deleted_for_receiver = false");
+    }
+
+    // 0017: every conversation read, clear and delete filters on conversation_key, which @PrePersist
+    // only sets on new rows. NOT NULL afterwards, so no row can drop out of those queries again
+    private void backfillConversationKeys() {
+        int updated = jdbcTemplate.update(
+            "UPDATE messages SET conversation_key = LEAST(sender_id, receiver_id) || ':' || GREATEST(sender_id, receiver_id) " +
+            "WHERE conversation_key IS NULL");
+        jdbcTemplate.execute("ALTER TABLE messages ALTER COLUMN conversation_key SET NOT NULL");
+        if (updated > 0) {
+            log.info("Set conversation_key on {} existing messages", updated);
+        }
+    }
+
+    // 0018: live-item queries (feed, profile pages, feed index, message preflight) say deleted = false,
+    // which a legacy NULL never matches. Filled before the feed index loads. The partial indexes
+    // cannot be declared with @Index, so they are created here
+    private void backfillItemDeleted() {
+        int updated = jdbcTemplate.update("UPDATE item SET deleted = false WHERE deleted IS NULL");
+        jdbcTemplate.execute("ALTER TABLE item ALTER COLUMN deleted SET DEFAULT false");
+        jdbcTemplate.execute("ALTER TABLE item ALTER COLUMN deleted SET NOT NULL");
+        if (updated > 0) {
+            log.info("Set deleted = false on {} existing posts", updated);
+        }
+        // Live items only: feed ordering, profile pages and type/category filters
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_live_date_shared ON item (date_shared) WHERE deleted = false");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_live_type_category ON item (type, category) WHERE deleted = false");
+    }
+
+    // 0019: nickname and email lookups (profile pages, login, JWT resolution) go through unique indexes.
+    // Existing duplicates would make the CREATE fail, so they are logged and that index is skipped
+    // instead of stopping startup; it is created on the first start after they are resolved
+    private void createUserLookupIndexes() {
+        createUniqueIndexUnlessDuplicated("uk_users_nickname", "users", "nickname");
+        createUniqueIndexUnlessDuplicated("uk_users_uni_mail", "users", "uni_mail");
+        // Paginated profile listings read a user's live posts newest first straight off this index;
+        // it supersedes a single-column index on users_id
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_live_users_id_date_shared " +
+            "ON item (users_id, date_shared DESC, item_id DESC) WHERE deleted = false");
+        jdbcTemplate.execute("DROP INDEX IF EXISTS idx_item_live_users_id");
+    }
+
+    // 0020: avatar links carry ?v=<avatar_version> so they can be cached for good; a photo saved before
+    // the column existed would otherwise get an unversioned, uncacheable link
+    private void backfillAvatarVersions() {
+        int updated = jdbcTemplate.update(
+            "UPDATE users SET avatar_version = left(encode(sha256(convert_to(profile_photo_url, 'UTF8')), 'hex'), 16) " +
+            "WHERE avatar_version IS NULL AND profile_photo_url IS NOT NULL");
+        if (updated > 0) {
+            log.info("Set avatar_version on {} existing profile photos", updated);
+        }
+    }
+
+    // 0021: uploaded avatars used to store their absolute link in profile_photo_url; links are built
+    // from avatar_key/avatar_version at read time now, so a stored one would only go stale
+    private void clearStoredAvatarLinks() {
+        jdbcTemplate.update("UPDATE users SET profile_photo_url = NULL WHERE avatar_key IS NOT NULL AND profile_photo_url IS NOT NULL");
+    }
+
+    // 0022: the reclaim job looks for images at ref_count 0, oldest first (partial, so not an @Index);
+    // releases and the FK checks on stored_images deletes look rows up by image_hash
+    private void createStoredImageIndexes() {
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_stored_images_unreferenced " +
+            "ON stored_images (unreferenced_since) WHERE ref_count = 0");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_item_image_hash ON item (image_hash)");
+        jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_message_images_image_hash ON message_images (image_hash)");
+    }
+
+    private void createUniqueIndexUnlessDuplicated(String index, String table, String column) {
+        Long duplicates = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM (SELECT " + column + " FROM " + table + " WHERE " + column + " IS NOT NULL " +
+            "GROUP BY " + column + " HAVING COUNT(*) > 1) dup", Long.class);
+        if (duplicates != null && duplicates > 0) {
+            log.warn("Not creating {}: {} values of {}.{} are used more than once", index, duplicates, table, column);
+            return;
+        }
+        jdbcTemplate.execute("CREATE UNIQUE INDEX IF NOT EXISTS " + index + " ON " + table + " (" + column + ")");
+    }
+
+    private void advanceSequence(String sequence, String table, String idColumn) {
+        Long value = jdbcTemplate.queryForObject(
+            "SELECT setval('" + sequence + "', GREATEST((SELECT last_value FROM " + sequence + "), " +
+            "COALESCE((SELECT MAX(" + idColumn + ") FROM " + table + "), 0) + 50))", Long.class);
+        log.info("Sequence {} at {}", sequence, value);
+    }
+}
@@ -12,15 +12,23 @@ import com.example.repository.UserReportRepository;
 import com.example.models.UserReport;
 import com.example.service.UserService;
 import com.example.service.ItemService;
+import com.example.service.LocationService;
 import com.example.service.EmailService;
+import com.example.service.FeedCache;
+import com.example.service.ReportService;
+import com.example.service.StatsService;
+import com.example.request.BulkReportStatusRequest;
 import com.example.response.ApiResponse;
+import com.example.response.JsonArrayStream;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import com.example.repository.MessageRepository;
-import com.example.models.Messages;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
@@ -40,7 +48,11 @@ public class AdminController {
     private final UserService userService;
     private final ItemService itemService;
     private final EmailService emailService;
-    private final MessageRepository messageRepository;
+    private final StatsService statsService;
+    private final ReportService reportService;
+    private final FeedCache feedCache;
+    private final LocationService locationService;
+    private final ObjectMapper objectMapper;
 
     // Check if user is admin
     private User validateAdmin(String jwt) throws Exception {
@@ -56,44 +68,47 @@ public class AdminController {
     }
 
     // User Management APIs
+    // Every user, written to the response as it is read (see /users/page for a paged list)
     @GetMapping("/users")
-    public ResponseEntity<List<Map<String, Object>>> getAllUsers(@RequestHeader("Authorization") String jwt) {
+    public ResponseEntity<StreamingResponseBody> getAllUsers(@RequestHeader("Authorization") String jwt) {
+        try {
+            validateAdmin(jwt);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(JsonArrayStream.of(objectMapper, sink -> userService.streamAdminUsers(sink::accept)));
+    }
+
+    // Paginated user list with filters, e.g. /users/page?page=0&size=50&sort=createdAt&direction=desc&banned=true
+    // The total is only counted when includeTotal=true
+    @GetMapping("/users/page")
+    public ResponseEntity<Map<String, Object>> getUserPage(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "50") int size,
+            @RequestParam(required = false, defaultValue = "id") String sort,
+            @RequestParam(required = false, defaultValue = "asc") String direction,
+            @RequestParam(required = false) Boolean banned,
+            @RequestParam(required = false) Boolean verified,
+            @RequestParam(required = false) String role,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false, defaultValue = "false") boolean includeTotal) {
         try {
             validateAdmin(jwt);
-            
-            List<User> users = userRepository.findAll();
-            List<Map<String, Object>> response = users.stream()
-                .map(user -> {
-                    Map<String, Object> userMap = new HashMap<>();
-                    userMap.put("id", user.getUser_id());
-                    userMap.put("name", user.getName());
-                    userMap.put("surname", user.getSurname());
-                    userMap.put("nickname", user.getNickname());
-                    userMap.put("email", user.getUniMail());
-                    userMap.put("department", user.getDepartment() != null ? user.getDepartment() : "Unknown");
-                    userMap.put("phoneNumber", user.getPhoneNumber());
-                    userMap.put("studentId", user.getStudentId());
-                    userMap.put("createdAt", user.getCreated_at().toString());
-                    userMap.put("isBanned", user.isCurrentlyBanned());
-                    userMap.put("isVerified", user.getIsVerified());
-                    userMap.put("profilePhotoUrl", user.getProfilePhotoUrl());
-                    userMap.put("role", user.getRole().toString());
-                    
-                    if (user.getBanExpiresAt() != null) {
-                        userMap.put("banExpiresAt", user.getBanExpiresAt().toString());
-                    }
-                    if (user.getBanReason() != null) {
-                        userMap.put("banReason", user.getBanReason());
-                    }
-                    
-                    return userMap;
-                })
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            return ResponseEntity.ok(userService.getAdminUserPage(Math.max(page, 0), pageSize, sort, direction,
+                    banned, verified, role, department, includeTotal));
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
     }
 
     @PutMapping("/users/{userId}/ban")
@@ -167,25 +182,14 @@ public class AdminController {
                     System.err.println("ERROR: Could not find user after save!");
                 }
                 
-                // Update all reports for this user to ACTION_TAKEN status
-                System.out.println("=== UPDATING USER REPORTS FOR BANNED USER ===");
-                System.out.println("User ID: " + userId);
-                List<UserReport> userReports = userReportRepository.findByUserId(userId);
-                System.out.println("Found " + userReports.size() + " user reports for this user");
-                
-                for (UserReport report : userReports) {
-                    System.out.println("Report ID: " + report.getId() + ", Current Status: " + report.getStatus());
-                    if (report.getStatus() == UserReport.ReportStatus.PENDING || 
-                        report.getStatus() == UserReport.ReportStatus.REVIEWED) {
-                        report.setStatus(UserReport.ReportStatus.ACTION_TAKEN);
-                        report.setReviewedAt(LocalDateTime.now());
-                        report.setReviewedBy(admin);
-                        userReportRepository.save(report);
-                        System.out.println("Updated report " + report.getId() + " to ACTION_TAKEN");
-                    } else {
-                        System.out.println("Skipping report " + report.getId() + " - already processed");
-                    }
-                }
+                // Update all open reports for this user to ACTION_TAKEN status in one statement
+                int resolvedReports = userReportRepository.resolveReportsForUser(
+                    userId,
+                    List.of(UserReport.ReportStatus.PENDING, UserReport.ReportStatus.REVIEWED),
+                    UserReport.ReportStatus.ACTION_TAKEN,
+                    admin,
+                    LocalDateTime.now());
+                System.out.println("Updated " + resolvedReports + " user reports to ACTION_TAKEN");
                 
                 // Send ban notification email only if user has email notifications enabled
                 if (Boolean.TRUE.equals(user.getEmailNotifications())) {
@@ -231,34 +235,16 @@ public class AdminController {
 
     // Post Management APIs
     @GetMapping("/posts")
-    public ResponseEntity<List<Map<String, Object>>> getAllPosts(@RequestHeader("Authorization") String jwt) {
+    public ResponseEntity<StreamingResponseBody> getAllPosts(@RequestHeader("Authorization") String jwt) {
         try {
             validateAdmin(jwt);
-            
-            List<Item> posts = itemRepository.findAll();
-            List<Map<String, Object>> response = posts.stream()
-                .map(post -> {
-                    Map<String, Object> postMap = new HashMap<>();
-                    postMap.put("id", post.getItem_id());
-                    postMap.put("title", post.getTitle());
-                    postMap.put("description", post.getDescription());
-                    postMap.put("type", post.getType().toString());
-                    postMap.put("category", post.getCategory().toString());
-                    postMap.put("location", post.getLocation() != null ? post.getLocation().getNameEn() : "Unknown");
-                    postMap.put("createdAt", post.getDateShared().toString());
-                    postMap.put("userName", post.getUser().getNickname());
-                    postMap.put("userEmail", post.getUser().getUniMail());
-                    postMap.put("imageBase64", post.getImage());
-                    postMap.put("reportCount", reportRepository.countByPostId(post.getItem_id()));
-                    postMap.put("isDeleted", post.getDeleted() != null ? post.getDeleted() : false);
-                    return postMap;
-                })
-                .collect(Collectors.toList());
-            
-            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
+        // Rows (with their images) go out one at a time instead of being collected first
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(JsonArrayStream.of(objectMapper, sink -> itemService.streamAdminPosts(sink::accept)));
     }
 
     @DeleteMapping("/posts/{postId}")
@@ -273,19 +259,17 @@ public class AdminController {
             Item post = itemService.findItemByIdForAdmin(postId);
             System.out.println("Post found: " + post.getTitle());
             
-            // Update all reports for this post to ACTION_TAKEN status
-            List<Report> reports = reportRepository.findByPostId(postId);
-            System.out.println("Found " + reports.size() + " reports for this post");
-            for (Report report : reports) {
-                report.setStatus(Report.ReportStatus.ACTION_TAKEN);
-                report.setReviewedAt(LocalDateTime.now());
-                report.setReviewedBy(admin);
-                reportRepository.save(report);
-            }
+            // Update all reports for this post to ACTION_TAKEN status in one statement
+            int resolvedReports = reportRepository.resolveReportsForPost(
+                postId,
+                List.of(Report.ReportStatus.PENDING, Report.ReportStatus.REVIEWED, Report.ReportStatus.DISMISSED),
+                Report.ReportStatus.ACTION_TAKEN,
+                admin,
+                LocalDateTime.now());
+            System.out.println("Updated " + resolvedReports + " reports to ACTION_TAKEN");
             
             // Soft delete: Set deleted flag to true instead of hard delete
-            post.setDeleted(true);
-            itemRepository.save(post);
+            itemService.deleteItemAsAdmin(post);
             System.out.println("Post deleted successfully");
             
             return ResponseEntity.ok(new ApiResponse("Post deleted successfully", true));
@@ -318,84 +302,94 @@ public class AdminController {
         }
     }
 
+    // Re-reads the location table into the in-memory registry after it was edited by hand
+    @PostMapping("/locations/reload")
+    public ResponseEntity<Map<String, Object>> reloadLocations(@RequestHeader("Authorization") String jwt) {
+        try {
+            validateAdmin(jwt);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", "Locations reloaded");
+        response.put("count", locationService.reloadLocations());
+        return ResponseEntity.ok(response);
+    }
+
+    // Hit rates and sizes of the public feed caches
+    @GetMapping("/stats/cache")
+    public ResponseEntity<Map<String, Object>> getCacheStats(@RequestHeader("Authorization") String jwt) {
+        try {
+            validateAdmin(jwt);
+            return ResponseEntity.ok(feedCache.stats());
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+    }
+
+    // Daily trends served from the rollup tables, e.g. /stats/timeseries?from=2025-01-01&to=2025-01-31&groupBy=category
+    @GetMapping("/stats/timeseries")
+    public ResponseEntity<Map<String, Object>> getStatsTimeseries(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false, defaultValue = "type") String groupBy) {
+        try {
+            validateAdmin(jwt);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        try {
+            LocalDate toDate = (to != null && !to.isEmpty()) ? LocalDate.parse(to) : LocalDate.now();
+            LocalDate fromDate = (from != null && !from.isEmpty()) ? LocalDate.parse(from) : toDate.minusDays(29);
+            return ResponseEntity.ok(statsService.getTimeseries(fromDate, toDate, groupBy));
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
+    }
+
     // Report Management APIs
     @GetMapping("/reports")
-    public ResponseEntity<List<Map<String, Object>>> getAllReports(@RequestHeader("Authorization") String jwt) {
+    public ResponseEntity<StreamingResponseBody> getAllReports(@RequestHeader("Authorization") String jwt) {
         try {
             validateAdmin(jwt);
-            List<Map<String, Object>> response = new java.util.ArrayList<>();
-            // Post reports
-            List<Report> reports = reportRepository.findAllByOrderByCreatedAtDesc();
-            for (Report report : reports) {
-                Map<String, Object> reportMap = new java.util.HashMap<>();
-                reportMap.put("id", report.getId());
-                reportMap.put("type", "post");
-                reportMap.put("postId", report.getPost().getItem_id());
-                reportMap.put("postTitle", report.getPost().getTitle());
-                reportMap.put("postType", report.getPost().getType().toString());
-                reportMap.put("reporterId", report.getReporter().getUser_id());
-                reportMap.put("reporterName", report.getReporter().getNickname());
-                reportMap.put("reporterEmail", report.getReporter().getUniMail());
-                reportMap.put("reason", report.getReason());
-                reportMap.put("description", report.getDescription());
-                reportMap.put("status", report.getStatus().toString());
-                reportMap.put("createdAt", report.getCreatedAt().toString());
-                if (report.getReviewedAt() != null) {
-                    reportMap.put("reviewedAt", report.getReviewedAt().toString());
-                }
-                if (report.getReviewedBy() != null) {
-                    reportMap.put("reviewedBy", report.getReviewedBy().getNickname());
-                }
-                response.add(reportMap);
-            }
-            // User reports
-            List<UserReport> userReports = userReportRepository.findAllByOrderByCreatedAtDesc();
-            System.out.println("=== FETCHING USER REPORTS ===");
-            System.out.println("Total user reports found: " + userReports.size());
-            for (UserReport report : userReports) {
-                System.out.println("User Report ID: " + report.getId() + ", Status: " + report.getStatus() + ", User ID: " + report.getUser().getUser_id());
-                Map<String, Object> reportMap = new java.util.HashMap<>();
-                reportMap.put("id", report.getId());
-                reportMap.put("type", "user");
-                reportMap.put("userId", report.getUser().getUser_id());
-                reportMap.put("userNickname", report.getUser().getNickname());
-                reportMap.put("userEmail", report.getUser().getUniMail());
-                reportMap.put("reporterId", report.getReporter().getUser_id());
-                reportMap.put("reporterName", report.getReporter().getNickname());
-                reportMap.put("reporterEmail", report.getReporter().getUniMail());
-                reportMap.put("reason", report.getReason());
-                reportMap.put("description", report.getDescription());
-                reportMap.put("status", report.getStatus().toString());
-                reportMap.put("createdAt", report.getCreatedAt().toString());
-                if (report.getReviewedAt() != null) {
-                    reportMap.put("reviewedAt", report.getReviewedAt().toString());
-                }
-                if (report.getReviewedBy() != null) {
-                    reportMap.put("reviewedBy", report.getReviewedBy().getNickname());
-                }
-                // Eğer reportedMessageIds varsa, mesaj içeriklerini de ekle
-                if (report.getReportedMessageIds() != null && !report.getReportedMessageIds().isEmpty()) {
-                    List<Messages> reportedMessages = messageRepository.findByMessageIdIn(report.getReportedMessageIds());
-                    List<Map<String, Object>> messageSummaries = new ArrayList<>();
-                    for (Messages msg : reportedMessages) {
-                        Map<String, Object> msgMap = new HashMap<>();
-                        msgMap.put("id", msg.getMessageId());
-                        msgMap.put("senderId", msg.getSender().getUser_id());
-                        msgMap.put("receiverId", msg.getReceiver().getUser_id());
-                        msgMap.put("content", msg.getMessageText());
-                        msgMap.put("sentAt", msg.getSentAt());
-                        messageSummaries.add(msgMap);
-                    }
-                    reportMap.put("reportedMessages", messageSummaries);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
+        }
+        // Hepsini birleştirip tarihe göre sırala (en yeni en üstte)
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(JsonArrayStream.of(objectMapper, sink -> {
+                try {
+                    reportService.streamAllReports(null, sink::accept);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
                 }
-                response.add(reportMap);
-            }
-            // Hepsini birleştirip tarihe göre sırala (en yeni en üstte)
-            response.sort((a, b) -> b.get("createdAt").toString().compareTo(a.get("createdAt").toString()));
-            return ResponseEntity.ok(response);
+            }));
+    }
+
+    // Keyset paginated report queue: pass the returned nextCursor to get the following page
+    @GetMapping("/reports/queue")
+    public ResponseEntity<Map<String, Object>> getReportQueue(
+            @RequestHeader("Authorization") String jwt,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "20") int size,
+            @RequestParam(required = false) String status) {
+        try {
+            validateAdmin(jwt);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.FORBIDDEN).body(null);
         }
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            return ResponseEntity.ok(reportService.getReportQueue(cursor, pageSize, status));
+        } catch (Exception e) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+        }
     }
 
     @PutMapping("/reports/{reportId}/status")
@@ -434,6 +428,27 @@ public class AdminController {
         }
     }
 
+    // Bulk moderation: { "postReportIds": [..], "userReportIds": [..], "status": "DISMISSED" }
+    @PutMapping("/reports/status")
+    public ResponseEntity<ApiResponse> bulkUpdateReportStatus(
+            @RequestHeader("Authorization") String jwt,
+            @RequestBody BulkReportStatusRequest request) {
+        User admin;
+        try {
+            admin = validateAdmin(jwt);
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                .body(new ApiResponse(e.getMessage(), false));
+        }
+        try {
+            int updated = reportService.bulkUpdateStatus(request, admin);
+            return ResponseEntity.ok(new ApiResponse(updated + " reports updated successfully", true));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ApiResponse(e.getMessage(), false));
+        }
+    }
+
     @DeleteMapping("/reports/{reportId}")
     public ResponseEntity<ApiResponse> deleteReport(@PathVariable Long reportId, @RequestHeader("Authorization") String jwt) {
         try {
@@ -8,25 +8,33 @@ import java.util.HashMap;
 import java.util.stream.Collectors;
 import java.util.Arrays;
 
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import lombok.RequiredArgsConstructor;
 import  com.example.service.ItemService;
 import com.example.models.Item;
+import com.example.projection.ItemView;
 import com.example.models.User;
 import com.example.models.Location;
 import com.example.models.Category;
 import com.example.models.ItemType;
+import com.example.config.BinaryFormatConfig;
 import com.example.config.JwtProvider;
 import com.example.repository.UserRepository;
+import com.example.service.FeedVersion;
 import com.example.service.LocationService;
 import java.util.Base64;
 import com.example.request.CreatePostRequest;
+import com.example.response.FeedPage;
+import com.example.response.FeedPost;
 
 @RestController
 @RequiredArgsConstructor
@@ -35,11 +43,16 @@ public class ItemController {
     private final ItemService itemService;
     private final UserRepository userRepository;
     private final LocationService locationService;
+    private final FeedVersion feedVersion;
+
+    // Categories are an enum, so their tag only changes with a deploy
+    private static final String CATEGORIES_ETAG = "\"categories-" + Integer.toHexString(Arrays.toString(Category.values()).hashCode()) + "\"";
 
     @PostMapping("/items/user/{userId}")
-    public ResponseEntity<Item> createItem(@RequestBody Item item, @PathVariable Long userId) {
+    public ResponseEntity<ItemView> createItem(@RequestBody Item item, @PathVariable Long userId) {
         try {
-            Item createdItem = itemService.createNewItem(item, userId);
+            Item savedItem = itemService.createNewItem(item, userId);
+            ItemView createdItem = itemService.findItemViewById(savedItem.getItem_id());
             return new ResponseEntity<>(createdItem, HttpStatus.ACCEPTED);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
@@ -58,17 +71,17 @@ public class ItemController {
         }
     }
 
-    @GetMapping("/items/{itemId}")
-    public ResponseEntity<Item> findItemById(@PathVariable Long itemId){
+    @GetMapping(value = "/items/{itemId}", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<ItemView> findItemById(@PathVariable Long itemId){
         try {
-            Item item = itemService.findItemById(itemId);
+            ItemView item = itemService.findItemViewById(itemId);
             return new ResponseEntity<>(item, HttpStatus.ACCEPTED);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    @GetMapping("/items/user/nickname/{userNickname}")
+    @GetMapping(value = "/items/user/nickname/{userNickname}", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
     public ResponseEntity<List<Item>> findItemByUserNickname(@PathVariable String userNickname) {
         try {
             List<Item> items = itemService.findItemByUserNickname(userNickname);
@@ -78,7 +91,7 @@ public class ItemController {
         }
     }
 
-    @GetMapping("/items/user/id/{userId}")
+    @GetMapping(value = "/items/user/id/{userId}", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
     public ResponseEntity<List<Item>> findItemByUserId(@PathVariable Long userId) {
         try {
             List<Item> items = itemService.findItemByUserId(userId);
@@ -88,79 +101,109 @@ public class ItemController {
         }
     }
 
-    @GetMapping("/posts")
-    public ResponseEntity<List<Map<String, Object>>> getPosts(
+    // Paginated, image-free variants of the two listings above; fetch images per card from /items/{itemId}/image
+    @GetMapping(value = "/items/user/id/{userId}/page", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<Map<String, Object>> findItemSummariesByUserId(
+        @PathVariable Long userId,
+        @RequestParam(required = false, defaultValue = "0") int page,
+        @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            return new ResponseEntity<>(itemService.findItemSummariesByUserId(userId, Math.max(page, 0), pageSize), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    @GetMapping(value = "/items/user/nickname/{userNickname}/page", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<Map<String, Object>> findItemSummariesByUserNickname(
+        @PathVariable String userNickname,
+        @RequestParam(required = false, defaultValue = "0") int page,
+        @RequestParam(required = false, defaultValue = "20") int size
+    ) {
+        try {
+            int pageSize = Math.max(1, Math.min(size, 100));
+            return new ResponseEntity<>(itemService.findItemSummariesByUserNickname(userNickname, Math.max(page, 0), pageSize), HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @GetMapping(value = "/items/{itemId}/image", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<Map<String, Object>> findItemImage(@PathVariable Long itemId) {
+        try {
+            Map<String, Object> image = new HashMap<>();
+            image.put("imageBase64", itemService.findItemImage(itemId));
+            image.put("imageContentType", "image/jpeg");
+            return new ResponseEntity<>(image, HttpStatus.OK);
+        } catch (Exception e) {
+            return new ResponseEntity<>(null, HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @GetMapping(value = "/posts", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<List<FeedPost>> getPosts(
         @RequestParam(required = false) String sortOrder,
         @RequestParam(required = false) String type,
         @RequestParam(required = false) String category,
         @RequestParam(required = false) String location,
         @RequestParam(required = false) String search,
         @RequestParam(required = false) String dateStart,
-        @RequestParam(required = false) String dateEnd
+        @RequestParam(required = false) String dateEnd,
+        @RequestParam(required = false) Integer page,
+        @RequestParam(required = false) Integer size,
+        WebRequest webRequest
     ) {
+        // The feed version covers every write that changes a feed response, so a match needs no query at all
+        String etag = BinaryFormatConfig.representationETag(feedVersion.etag(), webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         try {
             List<String> categories = (category != null && !category.isEmpty()) ? java.util.Arrays.asList(category.split(",")) : null;
             List<String> locations = (location != null && !location.isEmpty()) ? java.util.Arrays.asList(location.split(",")) : null;
-            List<Item> items = itemService.filterItems(type, categories, locations, search, sortOrder);
-            
-            // Apply date filtering in controller if dates are provided
-            if ((dateStart != null && !dateStart.trim().isEmpty()) || (dateEnd != null && !dateEnd.trim().isEmpty())) {
-                items = items.stream().filter(item -> {
-                    boolean passesDateFilter = true;
-                    
-                    if (dateStart != null && !dateStart.trim().isEmpty()) {
-                        try {
-                            java.time.LocalDateTime startDateTime = java.time.LocalDate.parse(dateStart.trim()).atStartOfDay();
-                            passesDateFilter = passesDateFilter && item.getDateShared().isAfter(startDateTime.minusSeconds(1));
-                        } catch (Exception e) {
-                            // If parsing fails, ignore start date filter
-                        }
-                    }
-                    
-                    if (dateEnd != null && !dateEnd.trim().isEmpty()) {
-                        try {
-                            java.time.LocalDateTime endDateTime = java.time.LocalDate.parse(dateEnd.trim()).atTime(23, 59, 59);
-                            passesDateFilter = passesDateFilter && item.getDateShared().isBefore(endDateTime.plusSeconds(1));
-                        } catch (Exception e) {
-                            // If parsing fails, ignore end date filter
-                        }
-                    }
-                    
-                    return passesDateFilter;
-                }).collect(java.util.stream.Collectors.toList());
+            // Without page the whole filtered feed is returned, as before
+            Integer pageSize = null;
+            if (page != null) {
+                if (page < 0) {
+                    return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
+                }
+                pageSize = Math.max(1, Math.min(size != null ? size : 20, 100));
             }
-            
-            List<Map<String, Object>> response = items.stream()
-                .map(item -> {
-                    Map<String, Object> post = new HashMap<>();
-                    post.put("id", item.getItem_id());
-                    post.put("title", item.getTitle());
-                    post.put("description", item.getDescription());
-                    post.put("type", item.getType().toString());
-                    post.put("category", item.getCategory().toString());
-                    post.put("location", item.getLocation() != null ? item.getLocation().getNameEn() : null);
-                    post.put("createdAt", item.getDateShared().toString());
-                    post.put("userName", item.getUser().getNickname());
-                    post.put("userEmail", item.getUser().getUniMail());
-                    post.put("userId", item.getUser().getUser_id());
-                    // Add user profile photo
-                    if (item.getUser().getProfilePhotoUrl() != null) {
-                        post.put("userProfilePhoto", item.getUser().getProfilePhotoUrl());
-                    }
-                    if (item.getImage() != null) {
-                        post.put("imageBase64", item.getImage());
-                        post.put("imageContentType", "image/jpeg");
-                    }
-                    return post;
-                })
-                .collect(Collectors.toList());
-            return new ResponseEntity<>(response, HttpStatus.OK);
+            // Served from the feed cache; identical filter sets share one database query
+            FeedPage feed = itemService.getFeedPage(type, categories, locations, search, dateStart, dateEnd, sortOrder, page, pageSize);
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(etag)
+                .varyBy("Accept")
+                .header("X-Total-Count", String.valueOf(feed.getTotal()))
+                .body(feed.getPosts());
         } catch (Exception e) {
             e.printStackTrace();
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
+    // Counts per type, category and location for the current feed filters; each group ignores its own filter
+    @GetMapping(value = "/posts/facets", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<Map<String, Object>> getPostFacets(
+        @RequestParam(required = false) String type,
+        @RequestParam(required = false) String category,
+        @RequestParam(required = false) String location,
+        @RequestParam(required = false) String search,
+        @RequestParam(required = false) String dateStart,
+        @RequestParam(required = false) String dateEnd
+    ) {
+        try {
+            List<String> categories = (category != null && !category.isEmpty()) ? java.util.Arrays.asList(category.split(",")) : null;
+            List<String> locations = (location != null && !location.isEmpty()) ? java.util.Arrays.asList(location.split(",")) : null;
+            return new ResponseEntity<>(itemService.getFeedFacets(type, categories, locations, search, dateStart, dateEnd), HttpStatus.OK);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(Map.of("message", "Invalid filter: " + e.getMessage()), HttpStatus.BAD_REQUEST);
+        }
+    }
+
     @PostMapping("/posts")
     public ResponseEntity<?> createPost(
         @RequestBody CreatePostRequest req,
@@ -189,30 +232,44 @@ public class ItemController {
             }
             // Save item
             Item savedItem = itemService.createNewItem(item, user.getUser_id());
-            return new ResponseEntity<>(savedItem, HttpStatus.CREATED);
+            ItemView createdPost = itemService.findItemViewById(savedItem.getItem_id());
+            return new ResponseEntity<>(createdPost, HttpStatus.CREATED);
         } catch (Exception e) {
             e.printStackTrace();
             return new ResponseEntity<>(e.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
 
-    @GetMapping("/categories")
-    public ResponseEntity<List<String>> getCategories() {
-        return new ResponseEntity<>(
-            Arrays.stream(Category.values())
+    @GetMapping(value = "/categories", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<List<String>> getCategories(WebRequest webRequest) {
+        String etag = BinaryFormatConfig.representationETag(CATEGORIES_ETAG, webRequest);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .cacheControl(CacheControl.maxAge(java.time.Duration.ofDays(1)).cachePublic())
+            .eTag(etag)
+            .varyBy("Accept")
+            .body(Arrays.stream(Category.values())
                 .map(Enum::name)
-                .collect(Collectors.toList()),
-            HttpStatus.OK
-        );
+                .collect(Collectors.toList()));
     }
 
-    @GetMapping("/locations")
-    public ResponseEntity<List<Location>> getLocations() {
+    @GetMapping(value = "/locations", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
+    public ResponseEntity<List<Location>> getLocations(WebRequest webRequest) {
         try {
+            String etag = BinaryFormatConfig.representationETag(locationService.locationsETag(), webRequest);
+            if (webRequest.checkNotModified(etag)) {
+                return null;
+            }
             List<Location> locations = locationService.findAllLocations();
-            return new ResponseEntity<>(locations, HttpStatus.OK);
+            return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(java.time.Duration.ofHours(1)).cachePublic())
+                .eTag(etag)
+                .varyBy("Accept")
+                .body(locations);
         } catch (Exception e) {
             return new ResponseEntity<>(null, HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-}
\ No newline at end of file
+}
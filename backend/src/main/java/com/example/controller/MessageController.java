@@ -1,19 +1,25 @@
 package com.example.controller;
 
+import com.example.config.BinaryFormatConfig;
+import com.example.exception.NotFoundException;
+import com.example.exception.SenderNotFoundException;
+import com.example.exception.UserBlockedException;
+import com.example.models.ConversationReadPointer;
 import com.example.models.Messages;
 import com.example.models.User;
-import com.example.models.MessageImage;
-import com.example.models.Item;
 import com.example.request.SendMessageRequest;
 import com.example.response.ApiResponse;
 import com.example.response.ConversationResponse;
 import com.example.response.MessageResponse;
+import com.example.projection.ReferencedItemSummary;
+import com.example.repository.ItemRepository;
 import com.example.repository.MessageImageRepository;
+import com.example.service.AvatarUrls;
 import com.example.service.MessageService;
 import com.example.service.UserService;
-import com.example.service.ItemService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -21,7 +27,11 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/messages")
@@ -36,7 +46,9 @@ public class MessageController {
     @Autowired
     private MessageImageRepository messageImageRepository;
     @Autowired
-    private ItemService itemService;
+    private ItemRepository itemRepository;
+    @Autowired
+    private AvatarUrls avatarUrls;
     
     // Health check endpoint
     @GetMapping("/health")
@@ -54,69 +66,23 @@ public class MessageController {
             String currentUserEmail = authentication.getName();
             System.out.println("Current user email: " + currentUserEmail);
             
-            User sender = userService.findUserByEmail(currentUserEmail);
-            
-            if (sender == null) {
+            // Lookups, block check, insert and images all happen in one transaction in the service
+            Messages message;
+            try {
+                message = messageService.sendMessage(currentUserEmail, request);
+                System.out.println("Message sent successfully: " + message.getMessageId());
+            } catch (UserBlockedException e) {
+                System.out.println("Message blocked due to user blocking: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse("Cannot send message - user blocked", false));
+            } catch (SenderNotFoundException e) {
                 System.out.println("Sender not found for email: " + currentUserEmail);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse("User not found", false));
-            }
-            
-            System.out.println("Sender found: " + sender.getName());
-            
-            User receiver;
-            try {
-                receiver = userService.findUserById(request.getReceiverId());
-                System.out.println("Receiver found: " + receiver.getName());
-            } catch (Exception e) {
-                System.out.println("Receiver not found for ID: " + request.getReceiverId());
+            } catch (NotFoundException e) {
+                System.out.println(e.getMessage() + " - receiver ID: " + request.getReceiverId() + ", reply ID: " + request.getReplyToMessageId());
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(new ApiResponse("Receiver not found", false));
-            }
-            
-            Item referencedItem = null;
-            if (request.getReferencedItemId() != null) {
-                try {
-                    referencedItem = itemService.findItemById(request.getReferencedItemId());
-                } catch (Exception e) {
-                    System.out.println("Referenced item not found or deleted for ID: " + request.getReferencedItemId() + " - " + e.getMessage());
-                    // Continue with referencedItem as null instead of returning error
-                    referencedItem = null;
-                }
-            }
-            
-            // Find reply to message if provided
-            Messages replyToMessage = null;
-            if (request.getReplyToMessageId() != null) {
-                replyToMessage = messageService.getMessageById(request.getReplyToMessageId());
-                if (replyToMessage == null) {
-                    System.out.println("Reply to message not found for ID: " + request.getReplyToMessageId());
-                    return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                        .body(new ApiResponse("Reply to message not found", false));
-                }
-            }
-            
-            // Send the message
-            Messages message;
-            try {
-                message = messageService.sendMessage(sender, receiver, request.getMessageText(), referencedItem, replyToMessage);
-                System.out.println("Message sent successfully: " + message.getMessageId());
-            } catch (RuntimeException e) {
-                if (e.getMessage().contains("blocked")) {
-                    System.out.println("Message blocked due to user blocking: " + e.getMessage());
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new ApiResponse("Cannot send message - user blocked", false));
-                }
-                throw e; // Re-throw if it's not a blocking issue
-            }
-            // Save images if present
-            if (request.getImageBase64List() != null) {
-                for (String base64 : request.getImageBase64List()) {
-                    MessageImage img = new MessageImage();
-                    img.setMessage(message);
-                    img.setImageBase64(base64);
-                    messageImageRepository.save(img);
-               }
+                    .body(new ApiResponse(e.getMessage(), false));
             }
             return ResponseEntity.ok(new ApiResponse("Message sent successfully", true));
             
@@ -129,7 +95,7 @@ public class MessageController {
     }
     
     // Get conversations for current user
-    @GetMapping("/conversations")
+    @GetMapping(value = "/conversations", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
     public ResponseEntity<List<ConversationResponse>> getConversations() {
         try {
             System.out.println("=== GET CONVERSATIONS REQUEST ===");
@@ -163,6 +129,13 @@ public class MessageController {
             
             List<ConversationResponse> conversations = new ArrayList<>();
             
+            // Images and referenced items for all last messages, loaded in one query each
+            Map<Long, List<String>> imagesByMessage = loadImages(latestMessages);
+            Map<Long, ReferencedItemSummary> itemsById = loadReferencedItems(latestMessages);
+            // Unread counts for every conversation and the read pointers behind isRead, one query each
+            Map<Long, Long> unreadByPartner = messageService.countUnreadByPartner(currentUser);
+            Map<String, Long> readPointers = messageService.getReadPointersInvolving(currentUser);
+            
             for (Messages message : latestMessages) {
                 try {
                     if (message == null) {
@@ -183,19 +156,9 @@ public class MessageController {
                         continue;
                     }
                     
-                    Long unreadCount = messageService.countUnreadMessagesExcludingDeleted(currentUser, otherUser);
-                    if (unreadCount == null) {
-                        unreadCount = 0L;
-                    }
+                    Long unreadCount = unreadByPartner.getOrDefault(otherUser.getUser_id(), 0L);
                     
-                    // Fetch images for the last message
-                    List<MessageImage> messageImages = messageImageRepository.findByMessage(message);
-                    List<String> imageBase64List = new ArrayList<>();
-                    for (MessageImage img : messageImages) {
-                        imageBase64List.add(img.getImageBase64());
-                    }
-                    
-                    MessageResponse lastMessageResponse = convertToMessageResponse(message, imageBase64List);
+                    MessageResponse lastMessageResponse = convertToMessageResponse(message, imagesByMessage, itemsById, readPointers);
                     
                     if (lastMessageResponse == null) {
                         System.out.println("WARNING: Failed to convert message to response for message ID: " + message.getMessageId());
@@ -207,7 +170,7 @@ public class MessageController {
                     conversation.setOtherUserId(otherUser.getUser_id());
                     conversation.setOtherUserName(otherUser.getName() + " " + otherUser.getSurname());
                     conversation.setOtherUserNickname(otherUser.getNickname());
-                    conversation.setOtherUserProfilePhoto(otherUser.getProfilePhotoUrl());
+                    conversation.setOtherUserProfilePhoto(avatarUrls.of(otherUser));
                     conversation.setOtherUserIsOnline(true); // TODO: Implement online status
                     conversation.setOtherUserLastSeen(LocalDateTime.now()); // TODO: Implement last seen
                     conversation.setLastMessage(lastMessageResponse);
@@ -233,7 +196,7 @@ public class MessageController {
     }
     
     // Get messages between current user and another user
-    @GetMapping("/conversation/{userId}")
+    @GetMapping(value = "/conversation/{userId}", produces = {MediaType.APPLICATION_JSON_VALUE, BinaryFormatConfig.CBOR, BinaryFormatConfig.SMILE})
     public ResponseEntity<List<MessageResponse>> getMessagesWithUser(@PathVariable Long userId) {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -254,19 +217,29 @@ public class MessageController {
             List<Messages> messages = messageService.getMessagesBetweenUsersExcludingDeleted(currentUser, otherUser, currentUser);
             List<MessageResponse> messageResponses = new ArrayList<>();
             
+            // Mark messages as read: move the read pointer to the newest message from the other user.
+            // A single-row upsert, skipped entirely when nothing new has arrived
+            Map<String, Long> readPointers = messageService.getReadPointersBetween(currentUser, otherUser);
+            String myPointerKey = ConversationReadPointer.key(currentUser.getUser_id(), otherUser.getUser_id());
+            Long newestReceivedId = null;
             for (Messages message : messages) {
-                // Fetch images for this message
-                List<MessageImage> messageImages = messageImageRepository.findByMessage(message);
-                List<String> imageBase64List = new ArrayList<>();
-                for (MessageImage img : messageImages) {
-                    imageBase64List.add(img.getImageBase64());
+                if (message.getSender().getUser_id().equals(otherUser.getUser_id())
+                        && (newestReceivedId == null || message.getMessageId() > newestReceivedId)) {
+                    newestReceivedId = message.getMessageId();
                 }
-                
-                messageResponses.add(convertToMessageResponse(message, imageBase64List));
             }
+            if (newestReceivedId != null && newestReceivedId > readPointers.getOrDefault(myPointerKey, 0L)) {
+                messageService.markMessagesAsRead(currentUser, otherUser, newestReceivedId);
+                readPointers.put(myPointerKey, newestReceivedId);
+            }
+            
+            // Images and referenced items for the whole conversation, loaded in one query each
+            Map<Long, List<String>> imagesByMessage = loadImages(messages);
+            Map<Long, ReferencedItemSummary> itemsById = loadReferencedItems(messages);
             
-            // Mark messages as read
-            messageService.markMessagesAsRead(currentUser, otherUser);
+            for (Messages message : messages) {
+                messageResponses.add(convertToMessageResponse(message, imagesByMessage, itemsById, readPointers));
+            }
             
             return ResponseEntity.ok(messageResponses);
             
@@ -281,34 +254,25 @@ public class MessageController {
         try {
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
             String currentUserEmail = authentication.getName();
-            User sender = userService.findUserByEmail(currentUserEmail);
+            SendMessageRequest initialMessage = new SendMessageRequest();
+            initialMessage.setReceiverId(userId);
+            initialMessage.setMessageText(request.getMessageText());
             
-            if (sender == null) {
+            // Send the initial message
+            try {
+                messageService.sendMessage(currentUserEmail, initialMessage);
+            } catch (UserBlockedException e) {
+                System.out.println("Conversation start blocked due to user blocking: " + e.getMessage());
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(new ApiResponse("Cannot start conversation - user blocked", false));
+            } catch (SenderNotFoundException e) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(new ApiResponse("User not found", false));
-            }
-            
-            User receiver;
-            try {
-                receiver = userService.findUserById(userId);
-            } catch (Exception e) {
+            } catch (NotFoundException e) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(new ApiResponse("User not found", false));
             }
             
-            // Send the initial message
-            Messages message;
-            try {
-                message = messageService.sendMessage(sender, receiver, request.getMessageText());
-            } catch (RuntimeException e) {
-                if (e.getMessage().contains("blocked")) {
-                    System.out.println("Conversation start blocked due to user blocking: " + e.getMessage());
-                    return ResponseEntity.status(HttpStatus.FORBIDDEN)
-                        .body(new ApiResponse("Cannot start conversation - user blocked", false));
-                }
-                throw e; // Re-throw if it's not a blocking issue
-            }
-            
             return ResponseEntity.ok(new ApiResponse("Conversation started successfully", true));
             
         } catch (Exception e) {
@@ -343,8 +307,8 @@ public class MessageController {
             }
             
             // Clear all messages between the two users
-            messageService.clearMessagesBetweenUsers(currentUser, otherUser);
-            System.out.println("Messages cleared successfully between " + currentUser.getName() + " and " + otherUser.getName());
+            int cleared = messageService.clearMessagesBetweenUsers(currentUser, otherUser);
+            System.out.println(cleared + " messages cleared between " + currentUser.getName() + " and " + otherUser.getName());
             
             return ResponseEntity.ok(new ApiResponse("Messages cleared successfully", true));
             
@@ -446,7 +410,49 @@ public class MessageController {
         }
     }
     
-    private MessageResponse convertToMessageResponse(Messages message, List<String> imageUrls) {
+    // Images of the given messages and of the messages they reply to, keyed by message id
+    private Map<Long, List<String>> loadImages(List<Messages> messages) {
+        Set<Long> messageIds = new HashSet<>();
+        for (Messages message : messages) {
+            messageIds.add(message.getMessageId());
+            if (message.getReplyToMessage() != null) {
+                messageIds.add(message.getReplyToMessage().getMessageId());
+            }
+        }
+        
+        Map<Long, List<String>> imagesByMessage = new HashMap<>();
+        if (messageIds.isEmpty()) {
+            return imagesByMessage;
+        }
+        for (Object[] row : messageImageRepository.findImagesByMessageIds(messageIds)) {
+            imagesByMessage.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        return imagesByMessage;
+    }
+    
+    // Item cards referenced by the given messages, one row per distinct item
+    private Map<Long, ReferencedItemSummary> loadReferencedItems(List<Messages> messages) {
+        Set<Long> itemIds = new HashSet<>();
+        for (Messages message : messages) {
+            if (message.getReferencedItem() != null) {
+                // Reading the id does not initialize the lazy proxy
+                itemIds.add(message.getReferencedItem().getItem_id());
+            }
+        }
+        
+        Map<Long, ReferencedItemSummary> itemsById = new HashMap<>();
+        if (itemIds.isEmpty()) {
+            return itemsById;
+        }
+        for (ReferencedItemSummary item : itemRepository.findReferencedItemSummaries(itemIds)) {
+            itemsById.put(item.getId(), item);
+        }
+        return itemsById;
+    }
+    
+    private MessageResponse convertToMessageResponse(Messages message, Map<Long, List<String>> imagesByMessage,
+                                                     Map<Long, ReferencedItemSummary> itemsById,
+                                                     Map<String, Long> readPointers) {
         MessageResponse response = new MessageResponse();
         response.setMessageId(message.getMessageId());
         
@@ -454,25 +460,33 @@ public class MessageController {
             response.setSenderId(message.getSender().getUser_id());
             response.setSenderName(message.getSender().getName() + " " + message.getSender().getSurname());
             response.setSenderNickname(message.getSender().getNickname());
-            response.setSenderProfilePhoto(message.getSender().getProfilePhotoUrl());
+            response.setSenderProfilePhoto(avatarUrls.of(message.getSender()));
         }
         
         if (message.getReceiver() != null) {
             response.setReceiverId(message.getReceiver().getUser_id());
             response.setReceiverName(message.getReceiver().getName() + " " + message.getReceiver().getSurname());
             response.setReceiverNickname(message.getReceiver().getNickname());
-            response.setReceiverProfilePhoto(message.getReceiver().getProfilePhotoUrl());
+            response.setReceiverProfilePhoto(avatarUrls.of(message.getReceiver()));
         }
         
         response.setMessageText(message.getMessageText());
         response.setSentAt(message.getSentAt());
-        response.setIsRead(message.getIsRead());
-        response.setImageBase64List(imageUrls);
+        // Read once the receiver's pointer for this sender has reached the message
+        if (message.getSender() != null && message.getReceiver() != null) {
+            Long lastRead = readPointers.get(ConversationReadPointer.key(
+                message.getReceiver().getUser_id(), message.getSender().getUser_id()));
+            response.setIsRead(lastRead != null && message.getMessageId() <= lastRead);
+        } else {
+            response.setIsRead(false);
+        }
+        response.setImageBase64List(imagesByMessage.getOrDefault(message.getMessageId(), new ArrayList<>()));
         
         // Add referenced item information if present
-        if (message.getReferencedItem() != null) {
-            Item item = message.getReferencedItem();
-            response.setReferencedItemId(item.getItem_id());
+        ReferencedItemSummary item = message.getReferencedItem() != null
+            ? itemsById.get(message.getReferencedItem().getItem_id()) : null;
+        if (item != null) {
+            response.setReferencedItemId(item.getId());
             response.setReferencedItemTitle(item.getTitle());
             response.setReferencedItemCategory(item.getCategory().toString());
             response.setReferencedItemType(item.getType().toString());
@@ -512,13 +526,7 @@ public class MessageController {
                 response.setReplyToSenderName(replyMessage.getSender().getName());
             }
             
-            // Fetch images for reply message
-            List<MessageImage> replyMessageImages = messageImageRepository.findByMessage(replyMessage);
-            List<String> replyImageBase64List = new ArrayList<>();
-            for (MessageImage img : replyMessageImages) {
-                replyImageBase64List.add(img.getImageBase64());
-            }
-            response.setReplyToMessageImages(replyImageBase64List);
+            response.setReplyToMessageImages(imagesByMessage.getOrDefault(replyMessage.getMessageId(), new ArrayList<>()));
         }
         
         return response;
@@ -8,6 +8,7 @@ import com.example.repository.ItemRepository;
 import com.example.repository.ReportRepository;
 import com.example.repository.UserRepository;
 import com.example.response.ApiResponse;
+import com.example.service.StatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +23,7 @@ public class ReportController {
 
     private final ReportRepository reportRepository;
     private final UserRepository userRepository;
+    private final StatsService statsService;
     private final ItemRepository itemRepository;
 
     @PostMapping
@@ -69,6 +71,7 @@ public class ReportController {
             }
 
             reportRepository.save(report);
+            statsService.recordPostReport();
 
             return ResponseEntity.ok(new ApiResponse("Report submitted successfully", true));
             
@@ -1,17 +1,28 @@
 package com.example.controller;
 
 import com.example.models.User;
+import com.example.projection.UserPublicView;
 import com.example.repository.UserRepository;
 import com.example.request.UpdateProfileRequest;
 import com.example.response.UserProfileResponse;
+import com.example.service.AvatarService;
+import com.example.service.AvatarUrls;
 import com.example.service.UserService;
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Base64;
 import java.util.HashMap;
@@ -25,11 +36,13 @@ public class UserController {
 
     private final UserService userService;
     private final UserRepository userRepository;
+    private final AvatarService avatarService;
+    private final AvatarUrls avatarUrls;
 
     @GetMapping("/api/users/{user_id}")
-    public ResponseEntity<User> getUserById(@PathVariable("user_id") Long id) {
+    public ResponseEntity<UserPublicView> getUserById(@PathVariable("user_id") Long id) {
         try {
-            User user = userService.findUserById(id);
+            UserPublicView user = userService.findUserPublicViewById(id);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // 404 NOT FOUND
@@ -37,9 +50,9 @@ public class UserController {
     }
 
     @GetMapping("/api/users/email/{uni_mail}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable("uni_mail") String mail) {
+    public ResponseEntity<UserPublicView> getUserByEmail(@PathVariable("uni_mail") String mail) {
         try {
-            User user = userService.findUserByEmail(mail);
+            UserPublicView user = userService.findUserPublicViewByEmail(mail);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body(null); // 404 NOT FOUND
@@ -47,10 +60,12 @@ public class UserController {
     }
 
 
+    // Paginated, e.g. /api/users?page=0&size=50 - returns items, page, size and hasNext
     @GetMapping("/api/users")
-    public List<User> getUsers(){
-        List<User> userList = userRepository.findAll();
-        return userList;
+    public Map<String, Object> getUsers(
+            @RequestParam(required = false, defaultValue = "0") int page,
+            @RequestParam(required = false, defaultValue = "50") int size){
+        return userService.getUserPage(Math.max(page, 0), Math.max(1, Math.min(size, 100)));
     }
 
     @PostMapping("/users")
@@ -70,8 +85,8 @@ public class UserController {
 
     }
     @GetMapping("/api/admin/search")
-    public List<User> searchUser(@RequestParam("query") String query) {
-        List<User> users = userService.searchUser(query);
+    public List<UserPublicView> searchUser(@RequestParam("query") String query) {
+        List<UserPublicView> users = userService.searchUser(query);
         return users;
 
     }
@@ -128,66 +143,89 @@ public class UserController {
         }
     }
 
+    // Streams the upload to the blob store; the 64/256px copies are made in the background
     @PostMapping("/api/v1/users/profile/photo")
     public ResponseEntity<UserProfileResponse> updateProfilePhoto(
             @RequestHeader("Authorization") String jwt,
             @RequestParam("profilePhoto") MultipartFile file) {
         try {
-            System.out.println("Profile photo upload request received");
-            System.out.println("File name: " + (file != null ? file.getOriginalFilename() : "null"));
-            System.out.println("File size: " + (file != null ? file.getSize() : "null"));
-            System.out.println("Content type: " + (file != null ? file.getContentType() : "null"));
-            
-            // File validation
-            if (file == null || file.isEmpty()) {
-                System.out.println("Error: File is empty or null");
-                return ResponseEntity.badRequest().body(null);
-            }
-            
-            // Check file size (5MB limit)
-            if (file.getSize() > 5 * 1024 * 1024) {
-                System.out.println("Error: File size too large: " + file.getSize());
-                return ResponseEntity.badRequest().body(null);
-            }
-            
-            // Check file type
-            String contentType = file.getContentType();
-            if (contentType == null || !contentType.startsWith("image/")) {
-                System.out.println("Error: Invalid content type: " + contentType);
-                return ResponseEntity.badRequest().body(null);
-            }
-            
-            System.out.println("File validation passed, processing...");
-            
-            // Convert to base64 and save
-            byte[] fileBytes = file.getBytes();
-            String base64Image = "data:" + contentType + ";base64," + Base64.getEncoder().encodeToString(fileBytes);
-            
-            System.out.println("Base64 conversion completed, finding user...");
-            
             User user = userService.findUserByJwt(jwt);
             if (user == null) {
-                System.out.println("Error: User not found");
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
             }
-            
-            System.out.println("User found: " + user.getUniMail() + ", updating profile photo...");
-            
-            user.setProfilePhotoUrl(base64Image);
-            userRepository.save(user);
-            
-            System.out.println("Profile photo updated successfully");
-            
+            avatarService.storeAvatar(user, file);
             UserProfileResponse updatedProfile = userService.getUserProfile(jwt);
             return ResponseEntity.ok(updatedProfile);
-            
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(null);
         } catch (Exception e) {
             System.err.println("Error updating profile photo: " + e.getMessage());
-            e.printStackTrace();
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(null);
         }
     }
 
+    // The profile photo as an image. Lists link here with ?v=<avatar version>; a link with the current
+    // version never changes, so it is cached for a year, anything else must revalidate.
+    // Uploaded photos come in 64 and 256px (default) or size=original.
+    @GetMapping("/api/v1/users/{userId}/avatar")
+    public ResponseEntity<Resource> getAvatar(
+            @PathVariable Long userId,
+            @RequestParam(value = "v", required = false) String version,
+            @RequestParam(value = "size", required = false) String size,
+            WebRequest webRequest) {
+        String currentVersion = userRepository.findAvatarVersionById(userId).orElse(null);
+        String eTag = currentVersion != null && size != null ? currentVersion + "-" + size : currentVersion;
+        if (eTag != null && webRequest.checkNotModified("\"" + eTag + "\"")) {
+            return null;
+        }
+        CacheControl cacheControl = currentVersion != null && currentVersion.equals(version)
+                ? CacheControl.maxAge(Duration.ofDays(365)).cachePublic().immutable()
+                : CacheControl.noCache();
+
+        String avatarKey = userRepository.findAvatarKeyById(userId).orElse(null);
+        if (avatarKey != null) {
+            Resource image;
+            try {
+                image = avatarService.openAvatar(avatarKey, size).orElse(null);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            if (image == null) {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+            }
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(image).orElse(MediaType.APPLICATION_OCTET_STREAM));
+            // Right after an upload the resized copy may not exist yet and the original stands in - don't pin that
+            boolean standIn = !"original".equals(size) && image.getFilename() != null && image.getFilename().startsWith("original");
+            if (standIn) {
+                return response.cacheControl(CacheControl.noCache()).body(image);
+            }
+            return response.cacheControl(cacheControl).eTag(eTag).body(image);
+        }
+
+        String photo = userRepository.findProfilePhotoById(userId).orElse(null);
+        if (photo == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        if (!photo.startsWith("data:")) {
+            return ResponseEntity.status(HttpStatus.FOUND).location(URI.create(photo)).build();
+        }
+
+        // Legacy inline photo - data:<content type>;base64,<payload>
+        int comma = photo.indexOf(',');
+        if (comma < 0 || !photo.substring(0, comma).endsWith(";base64")) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+        MediaType contentType = MediaType.parseMediaType(photo.substring(5, comma - ";base64".length()));
+        byte[] image = Base64.getDecoder().decode(photo.substring(comma + 1));
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().contentType(contentType).cacheControl(cacheControl);
+        if (eTag != null) {
+            response.eTag(eTag);
+        }
+        return response.body(new ByteArrayResource(image));
+    }
+
     @PostMapping("/api/v1/users/block/{userId}")
     public ResponseEntity<Map<String, String>> blockUser(
             @RequestHeader("Authorization") String jwt,
@@ -267,7 +305,7 @@ public class UserController {
                 userInfo.put("id", blockedUser.getUser_id());
                 userInfo.put("nickname", blockedUser.getNickname());
                 userInfo.put("name", blockedUser.getName() + " " + blockedUser.getSurname());
-                userInfo.put("profilePhotoUrl", blockedUser.getProfilePhotoUrl());
+                userInfo.put("profilePhotoUrl", avatarUrls.of(blockedUser));
                 blockedUsers.add(userInfo);
             }
             
@@ -6,6 +6,7 @@ import com.example.models.UserReport;
 import com.example.repository.UserReportRepository;
 import com.example.repository.UserRepository;
 import com.example.response.ApiResponse;
+import com.example.service.StatsService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -20,6 +21,7 @@ public class UserReportController {
 
     private final UserReportRepository userReportRepository;
     private final UserRepository userRepository;
+    private final StatsService statsService;
 
     @PostMapping
     public ResponseEntity<ApiResponse> createUserReport(
@@ -74,6 +76,7 @@ public class UserReportController {
             }
 
             userReportRepository.save(report);
+            statsService.recordUserReport();
 
             return ResponseEntity.ok(new ApiResponse("User report submitted successfully", true));
 
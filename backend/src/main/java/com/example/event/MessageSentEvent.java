@@ -0,0 +1,15 @@
+package com.example.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Published inside the send transaction; listeners only see it once the message is committed
+@Getter
+@AllArgsConstructor
+public class MessageSentEvent {
+    private final Long messageId;
+    private final Long senderId;
+    private final Long receiverId;
+    private final Long referencedItemId;
+    private final String messageText;
+}
@@ -0,0 +1,57 @@
+package com.example.event;
+
+import com.example.models.Item;
+import com.example.models.User;
+import com.example.repository.ItemRepository;
+import com.example.repository.UserRepository;
+import com.example.service.EmailService;
+import com.example.service.StatsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MessageSentListener {
+
+    private final UserRepository userRepository;
+    private final ItemRepository itemRepository;
+    private final EmailService emailService;
+    private final StatsService statsService;
+
+    // Runs after commit on the notification executor, so SMTP never holds up the request or its transaction
+    @Async("notificationExecutor")
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onMessageSent(MessageSentEvent event) {
+        statsService.recordMessageSent();
+
+        // Email notification only for messages about a post, if the receiver has notifications enabled
+        if (event.getReferencedItemId() == null) {
+            return;
+        }
+        try {
+            User receiver = userRepository.findById(event.getReceiverId()).orElse(null);
+            if (receiver == null || !Boolean.TRUE.equals(receiver.getPostNotifications())) {
+                return;
+            }
+            User sender = userRepository.findById(event.getSenderId()).orElse(null);
+            Item item = itemRepository.findById(event.getReferencedItemId()).orElse(null);
+            if (sender == null || item == null) {
+                return;
+            }
+            emailService.sendPostMessageNotification(
+                receiver.getUniMail(),
+                sender.getNickname(),
+                item.getTitle(),
+                event.getMessageText()
+            );
+        } catch (Exception e) {
+            // Don't fail anything else if email fails - the message is already stored
+            log.error("Failed to send post message notification for message {}", event.getMessageId(), e);
+        }
+    }
+}
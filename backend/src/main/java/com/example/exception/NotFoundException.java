@@ -0,0 +1,9 @@
+package com.example.exception;
+
+// Something the request refers to (receiver, replied-to message, ...) does not exist
+public class NotFoundException extends RuntimeException {
+
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.exception;
+
+// The authenticated user has no account row - answered as unauthorized rather than not found
+public class SenderNotFoundException extends NotFoundException {
+
+    public SenderNotFoundException(String message) {
+        super(message);
+    }
+}
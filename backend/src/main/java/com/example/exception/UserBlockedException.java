@@ -0,0 +1,9 @@
+package com.example.exception;
+
+// One of the two users has blocked the other
+public class UserBlockedException extends RuntimeException {
+
+    public UserBlockedException(String message) {
+        super(message);
+    }
+}
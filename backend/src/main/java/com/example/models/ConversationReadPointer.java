@@ -0,0 +1,41 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// How far a user has read their conversation with one partner. Messages from the partner
+// with an id above lastReadMessageId are unread; replaces updating is_read row by row
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "conversation_read_pointers",
+       uniqueConstraints = @UniqueConstraint(name = "uk_conversation_read_pointers_pair",
+                                             columnNames = {"user_id", "partner_id"}))
+public class ConversationReadPointer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "partner_id", nullable = false)
+    private Long partnerId;
+
+    @Column(name = "last_read_message_id", nullable = false)
+    private long lastReadMessageId;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    // Key used when pointers are passed around as a map: "<reader>:<partner>"
+    public static String key(Long readerId, Long partnerId) {
+        return readerId + ":" + partnerId;
+    }
+}
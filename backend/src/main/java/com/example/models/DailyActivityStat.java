@@ -0,0 +1,30 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Daily message and report volume rollup - one row per day
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_activity_stats")
+public class DailyActivityStat {
+
+    @Id
+    @Column(name = "stat_date")
+    private LocalDate statDate;
+
+    @Column(name = "messages_sent", nullable = false)
+    private long messagesSent;
+
+    @Column(name = "post_reports", nullable = false)
+    private long postReports;
+
+    @Column(name = "user_reports", nullable = false)
+    private long userReports;
+}
@@ -0,0 +1,44 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Daily post rollup per (type, category, location) - maintained incrementally, never rebuilt from item
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "daily_item_stats",
+       uniqueConstraints = @UniqueConstraint(name = "uk_daily_item_stats_bucket",
+                                             columnNames = {"stat_date", "type", "category", "location_id"}))
+public class DailyItemStat {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "stat_date", nullable = false)
+    private LocalDate statDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ItemType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category category;
+
+    // 0 when the post has no location, so the bucket stays unique
+    @Column(name = "location_id", nullable = false)
+    private Long locationId;
+
+    @Column(name = "created_count", nullable = false)
+    private long createdCount;
+
+    @Column(name = "deleted_count", nullable = false)
+    private long deletedCount;
+}
@@ -2,9 +2,12 @@ package com.example.models;
 import java.time.LocalDateTime;
 import jakarta.persistence.*;
 import jakarta.persistence.Column;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
@@ -14,7 +17,8 @@ import lombok.NoArgsConstructor;
 public class Item {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "item_id_gen")
+    @SequenceGenerator(name = "item_id_gen", sequenceName = "item_seq", allocationSize = 50)
     private Long item_id;
     private String description;
 
@@ -27,14 +31,24 @@ public class Item {
     @Column(name = "date_shared")
     private LocalDateTime dateShared;
 
-    private Boolean deleted;
+    // Soft-delete flag, NOT NULL so live-item queries can use the partial indexes (WHERE deleted = false)
+    @Column(nullable = false, columnDefinition = "boolean default false")
+    private Boolean deleted = false;
 
     @Enumerated(EnumType.STRING)
     private ItemType type;
     
+    // Inline image of posts created before stored_images; newer posts point at storedImage
     @Column(columnDefinition = "TEXT")
     private String image;
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "image_hash", referencedColumnName = "hash", foreignKey = @ForeignKey(name = "fk_item_stored_image"))
+    private StoredImage storedImage;
+
     @ManyToOne
     @JoinColumn(name = "users_id", referencedColumnName = "users_id", nullable = false, foreignKey = @ForeignKey(name = "fk_item_user"))
     private User user;
@@ -51,4 +65,9 @@ public class Item {
         this.title = title;
     }
 
+    // The post's image wherever it is kept
+    public String getImage() {
+        return storedImage != null ? storedImage.getContent() : image;
+    }
+
 }
@@ -12,16 +12,22 @@ import lombok.NoArgsConstructor;
 @Table(name = "message_images")
 public class MessageImage {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_images_id_gen")
+    @SequenceGenerator(name = "message_images_id_gen", sequenceName = "message_images_seq", allocationSize = 50)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "message_id")
     private Messages message;
 
+    // Only images sent before stored_images existed are inline; newer ones point at storedImage
     @Column(columnDefinition = "TEXT")
     private String imageBase64;
 
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "image_hash", referencedColumnName = "hash", foreignKey = @ForeignKey(name = "fk_message_images_stored_image"))
+    private StoredImage storedImage;
+
     // Getters and Setters
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
@@ -31,4 +37,7 @@ public class MessageImage {
 
     public String getImageBase64() { return imageBase64; }
     public void setImageBase64(String imageBase64) { this.imageBase64 = imageBase64; }
+
+    public StoredImage getStoredImage() { return storedImage; }
+    public void setStoredImage(StoredImage storedImage) { this.storedImage = storedImage; }
 }
\ No newline at end of file
@@ -10,18 +10,27 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "messages")
+// Conversation reads and the latest message per conversation range over (conversation_key, message_id);
+// the conversation list starts from sender/receiver, reply-tree walks follow reply_to_message_id
+@Table(name = "messages",
+       indexes = {
+           @Index(name = "idx_messages_conversation_key_message_id", columnList = "conversation_key, message_id"),
+           @Index(name = "idx_messages_sender_id", columnList = "sender_id"),
+           @Index(name = "idx_messages_receiver_id", columnList = "receiver_id"),
+           @Index(name = "idx_messages_reply_to_message_id", columnList = "reply_to_message_id")
+       })
 public class Messages {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "messages_id_gen")
+    @SequenceGenerator(name = "messages_id_gen", sequenceName = "messages_seq", allocationSize = 50)
     private Long messageId;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "sender_id", referencedColumnName = "users_id", nullable = false)
     private User sender;
     
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "receiver_id", referencedColumnName = "users_id", nullable = false)
     private User receiver;
     
@@ -31,6 +40,7 @@ public class Messages {
     @Column(name = "sent_at")
     private LocalDateTime sentAt;
     
+    // Legacy flag, no longer maintained - read state comes from conversation_read_pointers
     @Column(name = "is_read")
     private Boolean isRead = false;
     
@@ -48,17 +58,26 @@ public class Messages {
     private LocalDateTime deletedAt;
     
     // Item referansı - mesajın hangi post hakkında olduğunu belirtir
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "referenced_item_id", nullable = true)
     private Item referencedItem;
     
     // Reply referansı - bu mesajın hangi mesaja yanıt olduğunu belirtir
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "reply_to_message_id", nullable = true)
     private Messages replyToMessage;
     
+    // "<lower user id>:<higher user id>" - the same for both directions of a conversation
+    @Column(name = "conversation_key", length = 41)
+    private String conversationKey;
+    
     @PrePersist
     protected void onCreate() {
         sentAt = LocalDateTime.now();
+        conversationKey = conversationKey(sender.getUser_id(), receiver.getUser_id());
+    }
+    
+    public static String conversationKey(Long userId1, Long userId2) {
+        return Math.min(userId1, userId2) + ":" + Math.max(userId1, userId2);
     }
 }
@@ -0,0 +1,38 @@
+package com.example.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.time.LocalDateTime;
+
+// An image stored once per distinct content, keyed by the SHA-256 of the payload. Posts and message
+// images point here; refCount is how many rows do, and a row at zero is reclaimed by ImageStore
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "stored_images")
+public class StoredImage {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    // The payload exactly as clients sent it (base64 or data URL)
+    @ToString.Exclude
+    @Column(columnDefinition = "TEXT", nullable = false)
+    private String content;
+
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    // Set when refCount drops to zero; reclaimed once this is older than the grace period
+    @Column(name = "unreferenced_since")
+    private LocalDateTime unreferencedSince;
+}
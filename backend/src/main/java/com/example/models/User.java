@@ -5,9 +5,14 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.HexFormat;
+import java.util.Objects;
 
 @Data
 @NoArgsConstructor
@@ -50,6 +55,14 @@ public class User {
     
     @Column(columnDefinition = "TEXT")
     private String profilePhotoUrl;
+
+    // Content hash of profilePhotoUrl, kept in step by setProfilePhotoUrl; versions the avatar link in list responses
+    @Column(name = "avatar_version", length = 16)
+    private String avatarVersion;
+
+    // Blob store key of the uploaded original (avatars/<id>/<version>/original.<ext>); null for legacy inline photos
+    @Column(name = "avatar_key")
+    private String avatarKey;
     
     private String studentId;
     private String department;
@@ -78,6 +91,36 @@ public class User {
         this.blockedUsers = blockedUsers;
     }
 
+    public void setProfilePhotoUrl(String profilePhotoUrl) {
+        if (Objects.equals(this.profilePhotoUrl, profilePhotoUrl)) {
+            return;
+        }
+        this.profilePhotoUrl = profilePhotoUrl;
+        this.avatarVersion = avatarVersionOf(profilePhotoUrl);
+        this.avatarKey = null;
+    }
+
+    // An uploaded avatar lives in the blob store; the row keeps only its key and version, links are built
+    // when read (AvatarUrls) so they follow app.public-base-url
+    public void setAvatarBlob(String avatarKey, String avatarVersion) {
+        this.avatarKey = avatarKey;
+        this.avatarVersion = avatarVersion;
+        this.profilePhotoUrl = null;
+    }
+
+    // First 16 hex chars of SHA-256 over the stored photo; SchemaBackfill (and 0020_add_avatar_version.sql) compute the same in SQL
+    public static String avatarVersionOf(String profilePhotoUrl) {
+        if (profilePhotoUrl == null) {
+            return null;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(profilePhotoUrl.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest).substring(0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
     // Helper method to check if user is currently banned
     public boolean isCurrentlyBanned() {
         if (!Boolean.TRUE.equals(banned_status)) {
@@ -89,12 +132,14 @@ public class User {
             return true;
         }
         
-        // Get current time in Turkey timezone and convert to LocalDateTime for comparison
-        ZonedDateTime nowTurkey = ZonedDateTime.now(ZoneId.of("Europe/Istanbul"));
-        LocalDateTime nowLocal = nowTurkey.toLocalDateTime();
-        
         // Check if ban has expired
-        return nowLocal.isBefore(banExpiresAt);
+        return banClockNow().isBefore(banExpiresAt);
+    }
+
+    // Ban expiry times are stored in Turkey local time; queries filtering on bans use the same clock
+    public static LocalDateTime banClockNow() {
+        ZonedDateTime nowTurkey = ZonedDateTime.now(ZoneId.of("Europe/Istanbul"));
+        return nowTurkey.toLocalDateTime();
     }
 
 }
@@ -47,7 +47,8 @@ public class UserReport {
     private User reviewedBy;
 
     @ElementCollection
-    @CollectionTable(name = "user_reported_message_ids", joinColumns = @JoinColumn(name = "user_report_id"))
+    @CollectionTable(name = "user_reported_message_ids", joinColumns = @JoinColumn(name = "user_report_id"),
+                     indexes = @Index(name = "idx_user_reported_message_ids_message_id", columnList = "message_id"))
     @Column(name = "message_id")
     private java.util.List<Long> reportedMessageIds;
 
@@ -0,0 +1,22 @@
+package com.example.projection;
+
+import com.example.models.Category;
+import com.example.models.ItemType;
+
+import java.time.LocalDateTime;
+
+// Columns of the admin post list, with the owner's name and the report count resolved in the same row
+public interface AdminPostView {
+    Long getItemId();
+    String getTitle();
+    String getDescription();
+    ItemType getType();
+    Category getCategory();
+    String getLocationNameEn();
+    LocalDateTime getDateShared();
+    String getUserNickname();
+    String getUserEmail();
+    String getImage();
+    Long getReportCount();
+    Boolean getDeleted();
+}
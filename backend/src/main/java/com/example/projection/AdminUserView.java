@@ -0,0 +1,27 @@
+package com.example.projection;
+
+import com.example.models.Role;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+
+// Columns the admin user list shows - no password, verification code or blocked users
+public interface AdminUserView {
+    Long getUser_id();
+    String getName();
+    String getSurname();
+    String getNickname();
+    String getUniMail();
+    String getDepartment();
+    String getPhoneNumber();
+    String getStudentId();
+    LocalDateTime getCreated_at();
+    Boolean getBanned_status();
+    LocalDateTime getBanExpiresAt();
+    String getBanReason();
+    Boolean getIsVerified();
+    Role getRole();
+    // Uploaded avatars are linked by version, legacy photos come back as stored
+    @Value("#{@avatarUrls.forColumns(target['user_id'], target['profilePhotoUrl'], target['avatarKey'], target['avatarVersion'])}")
+    String getProfilePhotoUrl();
+}
@@ -0,0 +1,15 @@
+package com.example.projection;
+
+import com.example.models.Category;
+import com.example.models.ItemType;
+
+import java.time.LocalDateTime;
+
+// The filterable columns of a live post - what the in-memory feed index keeps per item
+public interface FeedIndexRow {
+    Long getItemId();
+    LocalDateTime getDateShared();
+    ItemType getType();
+    Category getCategory();
+    Long getLocationId();
+}
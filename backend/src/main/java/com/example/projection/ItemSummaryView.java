@@ -0,0 +1,18 @@
+package com.example.projection;
+
+import com.example.models.Category;
+import com.example.models.ItemType;
+
+import java.time.LocalDateTime;
+
+// Post card for profile listings - the image is fetched separately via /items/{id}/image when hasImage is true
+public interface ItemSummaryView {
+    Long getItem_id();
+    String getTitle();
+    String getDescription();
+    Category getCategory();
+    ItemType getType();
+    LocalDateTime getDateShared();
+    String getLocationNameEn();
+    Boolean getHasImage();
+}
@@ -0,0 +1,22 @@
+package com.example.projection;
+
+import com.example.models.Category;
+import com.example.models.ItemType;
+
+import java.time.LocalDateTime;
+
+// A single post with its owner and location flattened in - no User or Location entities loaded
+public interface ItemView {
+    Long getItem_id();
+    String getTitle();
+    String getDescription();
+    Category getCategory();
+    ItemType getType();
+    LocalDateTime getDateShared();
+    String getImage();
+    Long getUserId();
+    String getUserNickname();
+    Long getLocationId();
+    String getLocationName();
+    String getLocationNameEn();
+}
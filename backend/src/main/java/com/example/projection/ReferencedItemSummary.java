@@ -0,0 +1,13 @@
+package com.example.projection;
+
+import com.example.models.Category;
+import com.example.models.ItemType;
+
+// The item card shown next to a message - no user or location entities loaded
+public interface ReferencedItemSummary {
+    Long getId();
+    String getTitle();
+    Category getCategory();
+    ItemType getType();
+    String getImage();
+}
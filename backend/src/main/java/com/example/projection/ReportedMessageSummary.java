@@ -0,0 +1,12 @@
+package com.example.projection;
+
+import java.time.LocalDateTime;
+
+// Only the columns the admin report queue shows for a reported message
+public interface ReportedMessageSummary {
+    Long getId();
+    Long getSenderId();
+    Long getReceiverId();
+    String getContent();
+    LocalDateTime getSentAt();
+}
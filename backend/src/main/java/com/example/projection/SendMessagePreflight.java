@@ -0,0 +1,10 @@
+package com.example.projection;
+
+// Everything the send path has to check before inserting a message, read in one query
+public interface SendMessagePreflight {
+    Long getSenderId();
+    Long getReceiverId();
+    Boolean getBlocked();
+    Long getItemId();
+    Long getReplyId();
+}
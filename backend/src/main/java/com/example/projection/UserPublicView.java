@@ -0,0 +1,22 @@
+package com.example.projection;
+
+import com.example.models.Role;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.time.LocalDateTime;
+
+// Public user columns - no password, verification code, ban details or blocked users
+public interface UserPublicView {
+    Long getUser_id();
+    String getName();
+    String getMiddle_name();
+    String getSurname();
+    String getNickname();
+    String getUniMail();
+    LocalDateTime getCreated_at();
+    Role getRole();
+    // Uploaded avatars are linked by version, legacy photos come back as stored
+    @Value("#{@avatarUrls.forColumns(target['user_id'], target['profilePhotoUrl'], target['avatarKey'], target['avatarVersion'])}")
+    String getProfilePhotoUrl();
+    String getDepartment();
+}
@@ -0,0 +1,35 @@
+package com.example.repository;
+
+import com.example.models.ConversationReadPointer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface ConversationReadPointerRepository extends JpaRepository<ConversationReadPointer, Long> {
+
+    // Move the pointer forward to messageId, creating it on first read; never moves it backwards
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO conversation_read_pointers (user_id, partner_id, last_read_message_id, updated_at) " +
+                   "VALUES (:userId, :partnerId, :messageId, NOW()) " +
+                   "ON CONFLICT (user_id, partner_id) DO UPDATE SET " +
+                   "last_read_message_id = EXCLUDED.last_read_message_id, updated_at = EXCLUDED.updated_at " +
+                   "WHERE conversation_read_pointers.last_read_message_id < EXCLUDED.last_read_message_id",
+           nativeQuery = true)
+    int markReadUpTo(@Param("userId") Long userId,
+                     @Param("partnerId") Long partnerId,
+                     @Param("messageId") Long messageId);
+
+    // Both directions of one conversation: how far each side has read
+    @Query("SELECT p FROM ConversationReadPointer p WHERE " +
+           "(p.userId = :user1 AND p.partnerId = :user2) OR (p.userId = :user2 AND p.partnerId = :user1)")
+    List<ConversationReadPointer> findBetween(@Param("user1") Long user1, @Param("user2") Long user2);
+
+    // Every pointer the user owns or is the partner of, for the conversation list
+    @Query("SELECT p FROM ConversationReadPointer p WHERE p.userId = :userId OR p.partnerId = :userId")
+    List<ConversationReadPointer> findInvolving(@Param("userId") Long userId);
+}
@@ -0,0 +1,31 @@
+package com.example.repository;
+
+import com.example.models.DailyActivityStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyActivityStatRepository extends JpaRepository<DailyActivityStat, LocalDate> {
+
+    // Add deltas to the row of the given day, creating it on first use
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_activity_stats (stat_date, messages_sent, post_reports, user_reports) " +
+                   "VALUES (:statDate, :messages, :postReports, :userReports) " +
+                   "ON CONFLICT (stat_date) DO UPDATE SET " +
+                   "messages_sent = daily_activity_stats.messages_sent + EXCLUDED.messages_sent, " +
+                   "post_reports = daily_activity_stats.post_reports + EXCLUDED.post_reports, " +
+                   "user_reports = daily_activity_stats.user_reports + EXCLUDED.user_reports",
+           nativeQuery = true)
+    void increment(@Param("statDate") LocalDate statDate,
+                   @Param("messages") long messages,
+                   @Param("postReports") long postReports,
+                   @Param("userReports") long userReports);
+
+    List<DailyActivityStat> findByStatDateBetweenOrderByStatDate(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,45 @@
+package com.example.repository;
+
+import com.example.models.DailyItemStat;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyItemStatRepository extends JpaRepository<DailyItemStat, Long> {
+
+    // Add deltas to a (day, type, category, location) bucket, creating it on first use
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO daily_item_stats (stat_date, type, category, location_id, created_count, deleted_count) " +
+                   "VALUES (:statDate, :type, :category, :locationId, :created, :deleted) " +
+                   "ON CONFLICT (stat_date, type, category, location_id) DO UPDATE SET " +
+                   "created_count = daily_item_stats.created_count + EXCLUDED.created_count, " +
+                   "deleted_count = daily_item_stats.deleted_count + EXCLUDED.deleted_count",
+           nativeQuery = true)
+    void increment(@Param("statDate") LocalDate statDate,
+                   @Param("type") String type,
+                   @Param("category") String category,
+                   @Param("locationId") Long locationId,
+                   @Param("created") long created,
+                   @Param("deleted") long deleted);
+
+    // Each row: [statDate, type, created, deleted]
+    @Query("SELECT s.statDate, s.type, SUM(s.createdCount), SUM(s.deletedCount) FROM DailyItemStat s " +
+           "WHERE s.statDate BETWEEN :from AND :to GROUP BY s.statDate, s.type ORDER BY s.statDate")
+    List<Object[]> sumByDayAndType(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Each row: [statDate, category, created, deleted]
+    @Query("SELECT s.statDate, s.category, SUM(s.createdCount), SUM(s.deletedCount) FROM DailyItemStat s " +
+           "WHERE s.statDate BETWEEN :from AND :to GROUP BY s.statDate, s.category ORDER BY s.statDate")
+    List<Object[]> sumByDayAndCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Each row: [statDate, locationId, created, deleted]
+    @Query("SELECT s.statDate, s.locationId, SUM(s.createdCount), SUM(s.deletedCount) FROM DailyItemStat s " +
+           "WHERE s.statDate BETWEEN :from AND :to GROUP BY s.statDate, s.locationId ORDER BY s.statDate")
+    List<Object[]> sumByDayAndLocation(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,32 +1,125 @@
 package com.example.repository;
 
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
 import com.example.models.Item;
+import com.example.projection.AdminPostView;
+import com.example.projection.FeedIndexRow;
+import com.example.projection.ItemSummaryView;
+import com.example.projection.ItemView;
+import com.example.projection.ReferencedItemSummary;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.lang.Nullable;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    @Query("select i from Item i where i.user.user_id=:userId AND (i.deleted = false OR i.deleted IS NULL)")
+    // Feed filters, text search and date range over live posts, shared by the page and its count
+    String FEED_SEARCH_WHERE =
+        "WHERE i.deleted = false AND (:type IS NULL OR i.type = :type) " +
+        "AND (:categories IS NULL OR i.category IN :categories) AND (:locations IS NULL OR l.nameEn IN :locations) " +
+        "AND i.dateShared >= :from AND i.dateShared <= :to " +
+        "AND (:search IS NULL OR LOWER(i.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%')))";
+
+    @Query("select i from Item i where i.user.user_id=:userId AND i.deleted = false")
     List<Item> findItemByUserId(Long userId);
 
-    @Query("select i from Item i where i.user.nickname=:userNickname AND (i.deleted = false OR i.deleted IS NULL)")
+    @Query("select i from Item i where i.user.nickname=:userNickname AND i.deleted = false")
     List<Item> findItemByUserNickname(String userNickname);
 
-    @Query("select i from Item i where i.type=:type AND (i.deleted = false OR i.deleted IS NULL)")
+    @Query("select i from Item i where i.type=:type AND i.deleted = false")
     List<Item> findItemByType(com.example.models.ItemType type);
 
-    @Query("SELECT i FROM Item i WHERE (i.deleted = false OR i.deleted IS NULL) AND (:type IS NULL OR i.type = :type) AND (:categories IS NULL OR i.category IN :categories) AND (:locations IS NULL OR i.location.nameEn IN :locations) AND (:search IS NULL OR :search = '' OR LOWER(i.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%'))) ORDER BY " +
-           "CASE WHEN :sortOrder = 'asc' THEN i.dateShared END ASC, " +
-           "CASE WHEN :sortOrder = 'desc' THEN i.dateShared END DESC")
+    @Query("SELECT i FROM Item i LEFT JOIN FETCH i.storedImage WHERE i.deleted = false AND (:type IS NULL OR i.type = :type) AND (:categories IS NULL OR i.category IN :categories) AND (:locations IS NULL OR i.location.nameEn IN :locations) AND (:search IS NULL OR :search = '' OR LOWER(i.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%'))) ")
     List<Item> filterItems(
         @Nullable com.example.models.ItemType type,
         @Nullable List<com.example.models.Category> categories,
         @Nullable List<String> locations,
         @Nullable String search,
-        @Nullable String sortOrder
+        Sort sort
     );
+
+    // A live post with owner and location columns only
+    @Query("SELECT i.item_id AS item_id, i.title AS title, i.description AS description, i.category AS category, " +
+           "i.type AS type, i.dateShared AS dateShared, COALESCE(si.content, i.image) AS image, u.user_id AS userId, " +
+           "u.nickname AS userNickname, l.location_id AS locationId, l.name AS locationName, l.nameEn AS locationNameEn " +
+           "FROM Item i JOIN i.user u LEFT JOIN i.location l LEFT JOIN i.storedImage si " +
+           "WHERE i.item_id = :id AND i.deleted = false")
+    Optional<ItemView> findViewById(@Param("id") Long id);
+
+    // One page of a user's live posts, newest first, without image payloads
+    // (served by idx_item_live_users_id_date_shared)
+    @Query("SELECT i.item_id AS item_id, i.title AS title, i.description AS description, i.category AS category, " +
+           "i.type AS type, i.dateShared AS dateShared, l.nameEn AS locationNameEn, " +
+           "CASE WHEN i.storedImage IS NULL AND (i.image IS NULL OR i.image = '') THEN false ELSE true END AS hasImage " +
+           "FROM Item i LEFT JOIN i.location l " +
+           "WHERE i.user.user_id = :userId AND i.deleted = false " +
+           "ORDER BY i.dateShared DESC, i.item_id DESC")
+    Slice<ItemSummaryView> findSummariesByUserId(@Param("userId") Long userId, Pageable pageable);
+
+    // Image of a live post, loaded on demand by the profile listing
+    @Query("SELECT COALESCE(si.content, i.image) FROM Item i LEFT JOIN i.storedImage si WHERE i.item_id = :id AND i.deleted = false")
+    Optional<String> findImageById(@Param("id") Long id);
+
+    // Item cards referenced from messages, one row per distinct item
+    @Query("SELECT i.item_id AS id, i.title AS title, i.category AS category, i.type AS type, " +
+           "COALESCE(si.content, i.image) AS image " +
+           "FROM Item i LEFT JOIN i.storedImage si WHERE i.item_id IN :ids")
+    List<ReferencedItemSummary> findReferencedItemSummaries(@Param("ids") Collection<Long> ids);
+
+    // Filterable columns of every live post in feed order, used to build the in-memory feed index
+    @Query("SELECT i.item_id AS itemId, i.dateShared AS dateShared, i.type AS type, i.category AS category, " +
+           "l.location_id AS locationId " +
+           "FROM Item i LEFT JOIN i.location l " +
+           "WHERE i.deleted = false " +
+           "ORDER BY i.dateShared ASC, i.item_id ASC")
+    List<FeedIndexRow> findFeedIndexRows();
+
+    // Feed cards for ids answered by the feed index, owner, location and image fetched in the same statement
+    @Query("SELECT i FROM Item i JOIN FETCH i.user LEFT JOIN FETCH i.location LEFT JOIN FETCH i.storedImage " +
+           "WHERE i.item_id IN :ids AND i.deleted = false")
+    List<Item> findFeedItemsByIds(@Param("ids") Collection<Long> ids);
+
+    // One page of post ids for a searched feed; the cards are then loaded with findFeedItemsByIds
+    @Query(value = "SELECT i.item_id FROM Item i LEFT JOIN i.location l " + FEED_SEARCH_WHERE,
+           countQuery = "SELECT COUNT(i) FROM Item i LEFT JOIN i.location l " + FEED_SEARCH_WHERE)
+    Page<Long> findFeedIds(
+        @Nullable @Param("type") com.example.models.ItemType type,
+        @Nullable @Param("categories") List<com.example.models.Category> categories,
+        @Nullable @Param("locations") List<String> locations,
+        @Nullable @Param("search") String search,
+        @Param("from") LocalDateTime from,
+        @Param("to") LocalDateTime to,
+        Pageable pageable
+    );
+
+    // Live posts matching a text search and date range, counted per (type, category, location) cell
+    @Query("SELECT i.type, i.category, l.nameEn, COUNT(i) FROM Item i LEFT JOIN i.location l " +
+           "WHERE i.deleted = false AND i.dateShared >= :from AND i.dateShared <= :to " +
+           "AND (LOWER(i.title) LIKE LOWER(CONCAT('%', :search, '%')) OR LOWER(i.description) LIKE LOWER(CONCAT('%', :search, '%'))) " +
+           "GROUP BY i.type, i.category, l.nameEn")
+    List<Object[]> countFeedCells(@Param("search") String search, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // Every post for the admin export, deleted ones included, read through a cursor;
+    // the caller must hold a transaction and close the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "200"))
+    @Query("SELECT i.item_id AS itemId, i.title AS title, i.description AS description, i.type AS type, " +
+           "i.category AS category, l.nameEn AS locationNameEn, i.dateShared AS dateShared, " +
+           "u.nickname AS userNickname, u.uniMail AS userEmail, COALESCE(si.content, i.image) AS image, " +
+           "(SELECT COUNT(r) FROM Report r WHERE r.post = i) AS reportCount, i.deleted AS deleted " +
+           "FROM Item i JOIN i.user u LEFT JOIN i.location l LEFT JOIN i.storedImage si ORDER BY i.item_id")
+    Stream<AdminPostView> streamAdminViews();
 }
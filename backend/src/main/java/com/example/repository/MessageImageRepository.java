@@ -3,8 +3,28 @@ package com.example.repository;
 import com.example.models.MessageImage;
 import com.example.models.Messages;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
 import java.util.List;
 
 public interface MessageImageRepository extends JpaRepository<MessageImage, Long> {
     List<MessageImage> findByMessage(Messages message);
+
+    // Images for many messages at once, as [messageId, imageBase64] rows
+    @Query("SELECT i.message.messageId, COALESCE(s.content, i.imageBase64) FROM MessageImage i LEFT JOIN i.storedImage s " +
+           "WHERE i.message.messageId IN :messageIds ORDER BY i.id")
+    List<Object[]> findImagesByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+
+    // Stored-image hashes used by the given messages, once per image row (a message may repeat an image)
+    @Query("SELECT i.storedImage.hash FROM MessageImage i WHERE i.message.messageId IN :messageIds AND i.storedImage IS NOT NULL")
+    List<String> findImageHashesByMessageIds(@Param("messageIds") Collection<Long> messageIds);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM MessageImage i WHERE i.message.messageId IN :messageIds")
+    int deleteByMessageIds(@Param("messageIds") Collection<Long> messageIds);
 }
\ No newline at end of file
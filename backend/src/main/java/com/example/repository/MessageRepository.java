@@ -2,6 +2,8 @@ package com.example.repository;
 
 import com.example.models.Messages;
 import com.example.models.User;
+import com.example.projection.ReportedMessageSummary;
+import com.example.projection.SendMessagePreflight;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -9,91 +11,149 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface MessageRepository extends JpaRepository<Messages, Long> {
     
-    // Get all messages between two users, ordered by sent time (including deleted ones)
-    @Query("SELECT m FROM Messages m WHERE " +
-           "(m.sender = :user1 AND m.receiver = :user2) OR " +
-           "(m.sender = :user2 AND m.receiver = :user1) " +
-           "ORDER BY m.sentAt ASC")
-    List<Messages> findMessagesBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
+    // All queries for one conversation filter on the canonical conversation_key ("<lower id>:<higher id>")
+    // and order by message_id, both served by idx_messages_conversation_key_message_id
+    
+    // Get all messages between two users, oldest first (including deleted ones)
+    @Query("SELECT m FROM Messages m WHERE m.conversationKey = :conversationKey ORDER BY m.messageId ASC")
+    List<Messages> findMessagesBetweenUsers(@Param("conversationKey") String conversationKey);
     
     // Get messages between two users excluding deleted ones for current user
-    @Query("SELECT m FROM Messages m WHERE " +
-           "((m.sender = :user1 AND m.receiver = :user2) OR " +
-           "(m.sender = :user2 AND m.receiver = :user1)) AND " +
+    // Sender, receiver and the replied-to message are fetched in the same query; items and images are loaded in batches
+    @Query("SELECT m FROM Messages m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "LEFT JOIN FETCH m.replyToMessage r LEFT JOIN FETCH r.sender WHERE " +
+           "m.conversationKey = :conversationKey AND " +
            "m.isDeletedCompletely = false AND " +
            "NOT ((m.sender = :currentUser AND m.deletedForSender = true) OR " +
            "(m.receiver = :currentUser AND m.deletedForReceiver = true)) " +
-           "ORDER BY m.sentAt ASC")
-    List<Messages> findMessagesBetweenUsersExcludingDeletedForUser(@Param("user1") User user1, 
-                                                                  @Param("user2") User user2, 
+           "ORDER BY m.messageId ASC")
+    List<Messages> findMessagesBetweenUsersExcludingDeletedForUser(@Param("conversationKey") String conversationKey,
                                                                   @Param("currentUser") User currentUser);
     
-    // Get messages between two users excluding deleted ones for current user (legacy - use new method instead)
-    @Query("SELECT m FROM Messages m WHERE " +
-           "((m.sender = :user1 AND m.receiver = :user2) OR " +
-           "(m.sender = :user2 AND m.receiver = :user1)) AND " +
-           "m.isDeletedCompletely = false AND " +
-           "NOT ((m.sender = :currentUser AND m.deletedForSender = true) OR " +
-           "(m.receiver = :currentUser AND m.deletedForReceiver = true)) " +
-           "ORDER BY m.sentAt ASC")
-    List<Messages> findMessagesBetweenUsersExcludingDeleted(@Param("user1") User user1, 
-                                                           @Param("user2") User user2, 
-                                                           @Param("currentUser") User currentUser);
-    
-    // Get conversations for a specific user - latest message from each conversation
-    @Query("SELECT m FROM Messages m WHERE m.sender = :user OR m.receiver = :user ORDER BY m.sentAt DESC")
+    // Latest message of every conversation the user takes part in, newest conversation first
+    @Query("SELECT m FROM Messages m WHERE m.messageId IN (" +
+           "SELECT MAX(x.messageId) FROM Messages x WHERE x.sender = :user OR x.receiver = :user " +
+           "GROUP BY x.conversationKey) " +
+           "ORDER BY m.messageId DESC")
     List<Messages> findLatestConversations(@Param("user") User user);
     
-    // Get conversations excluding deleted messages for current user
-    @Query("SELECT m FROM Messages m WHERE " +
-           "(m.sender = :user OR m.receiver = :user) AND " +
-           "m.isDeletedCompletely = false AND " +
-           "NOT ((m.sender = :user AND m.deletedForSender = true) OR " +
-           "(m.receiver = :user AND m.deletedForReceiver = true)) " +
-           "ORDER BY m.sentAt DESC")
+    // Same, skipping messages deleted for the user
+    @Query("SELECT m FROM Messages m JOIN FETCH m.sender JOIN FETCH m.receiver " +
+           "LEFT JOIN FETCH m.replyToMessage r LEFT JOIN FETCH r.sender WHERE m.messageId IN (" +
+           "SELECT MAX(x.messageId) FROM Messages x WHERE " +
+           "(x.sender = :user OR x.receiver = :user) AND " +
+           "x.isDeletedCompletely = false AND " +
+           "NOT ((x.sender = :user AND x.deletedForSender = true) OR " +
+           "(x.receiver = :user AND x.deletedForReceiver = true)) " +
+           "GROUP BY x.conversationKey) " +
+           "ORDER BY m.messageId DESC")
     List<Messages> findLatestConversationsExcludingDeleted(@Param("user") User user);
     
-    // Count unread messages for a specific user from a specific sender
-    @Query("SELECT COUNT(m) FROM Messages m WHERE m.receiver = :receiver AND m.sender = :sender AND m.isRead = false")
-    Long countUnreadMessages(@Param("receiver") User receiver, @Param("sender") User sender);
-    
-    // Count unread messages excluding deleted ones
-    @Query("SELECT COUNT(m) FROM Messages m WHERE " +
-           "m.receiver = :receiver AND m.sender = :sender AND m.isRead = false AND " +
-           "m.isDeletedCompletely = false AND m.deletedForReceiver = false")
-    Long countUnreadMessagesExcludingDeleted(@Param("receiver") User receiver, @Param("sender") User sender);
-    
-    // Mark messages as read
-    @Modifying
-    @Transactional
-    @Query("UPDATE Messages m SET m.isRead = true WHERE m.receiver = :receiver AND m.sender = :sender AND m.isRead = false")
-    void markMessagesAsRead(@Param("receiver") User receiver, @Param("sender") User sender);
+    // Unread counts for every partner of one receiver in a single query, as [senderId, count] rows
+    @Query(value = "SELECT m.sender_id, COUNT(*) FROM messages m " +
+                   "LEFT JOIN conversation_read_pointers p ON p.user_id = m.receiver_id AND p.partner_id = m.sender_id " +
+                   "WHERE m.receiver_id = :receiverId AND m.message_id > COALESCE(p.last_read_message_id, 0) " +
+                   "AND m.is_deleted_completely = false AND m.deleted_for_receiver = false " +
+                   "GROUP BY m.sender_id", nativeQuery = true)
+    List<Object[]> countUnreadBySender(@Param("receiverId") Long receiverId);
     
     // Delete all messages between two users (kept for backward compatibility, but we'll use soft delete now)
     @Modifying
     @Transactional
-    @Query("DELETE FROM Messages m WHERE " +
-           "(m.sender = :user1 AND m.receiver = :user2) OR " +
-           "(m.sender = :user2 AND m.receiver = :user1)")
-    void deleteMessagesBetweenUsers(@Param("user1") User user1, @Param("user2") User user2);
+    @Query("DELETE FROM Messages m WHERE m.conversationKey = :conversationKey")
+    void deleteMessagesBetweenUsers(@Param("conversationKey") String conversationKey);
 
     List<Messages> findByMessageIdIn(List<Long> ids);
     
+    // Summaries for the admin report queue - no sender/receiver/item entities loaded
+    @Query("SELECT m.messageId AS id, m.sender.user_id AS senderId, m.receiver.user_id AS receiverId, " +
+           "m.messageText AS content, m.sentAt AS sentAt FROM Messages m WHERE m.messageId IN :ids")
+    List<ReportedMessageSummary> findSummariesByMessageIdIn(@Param("ids") Collection<Long> ids);
+    
+    // Send preflight in one round trip: sender by email, receiver, a block in either direction,
+    // a live referenced item and the replied-to message. Columns are null when the row does not exist
+    @Query(value = "SELECT s.users_id AS \"senderId\", " +
+                   "(SELECT r.users_id FROM users r WHERE r.users_id = :receiverId) AS \"receiverId\", " +
+                   "EXISTS (SELECT 1 FROM user_blocks b WHERE " +
+                   "(b.blocker_id = s.users_id AND b.blocked_id = :receiverId) OR " +
+                   "(b.blocker_id = :receiverId AND b.blocked_id = s.users_id)) AS \"blocked\", " +
+                   "(SELECT i.item_id FROM item i WHERE i.item_id = :itemId " +
+                   "AND i.deleted = false) AS \"itemId\", " +
+                   "(SELECT m.message_id FROM messages m WHERE m.message_id = :replyId) AS \"replyId\" " +
+                   "FROM users s WHERE s.uni_mail = :senderEmail", nativeQuery = true)
+    SendMessagePreflight preflightSend(@Param("senderEmail") String senderEmail, @Param("receiverId") Long receiverId,
+                                       @Param("itemId") Long itemId, @Param("replyId") Long replyId);
+    
     // Find all messages that reply to a specific message
     @Query("SELECT m FROM Messages m WHERE m.replyToMessage.messageId = :messageId")
     List<Messages> findRepliesByMessageId(@Param("messageId") Long messageId);
     
+    // Ids of a message and every reply below it at any depth, in one recursive query
+    @Query(value = "WITH RECURSIVE thread(message_id) AS (" +
+                   "SELECT message_id FROM messages WHERE message_id = :rootId " +
+                   "UNION " +
+                   "SELECT m.message_id FROM messages m JOIN thread t ON m.reply_to_message_id = t.message_id) " +
+                   "SELECT message_id FROM thread", nativeQuery = true)
+    List<Long> findThreadMessageIds(@Param("rootId") Long rootId);
+    
+    // Clear a conversation for one user: messages they sent, then messages they received
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.deletedForSender = true, m.deletedAt = :deletedAt " +
+           "WHERE m.conversationKey = :conversationKey AND m.sender = :user " +
+           "AND (m.deletedForSender IS NULL OR m.deletedForSender = false)")
+    int clearSentMessages(@Param("conversationKey") String conversationKey, @Param("user") User user,
+                          @Param("deletedAt") LocalDateTime deletedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.deletedForReceiver = true, m.deletedAt = :deletedAt " +
+           "WHERE m.conversationKey = :conversationKey AND m.receiver = :user " +
+           "AND (m.deletedForReceiver IS NULL OR m.deletedForReceiver = false)")
+    int clearReceivedMessages(@Param("conversationKey") String conversationKey, @Param("user") User user,
+                              @Param("deletedAt") LocalDateTime deletedAt);
+    
+    // Set-based helpers for deleting a whole reply tree
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.isDeletedCompletely = true, m.deletedForSender = true, m.deletedForReceiver = true, " +
+           "m.deletedAt = :deletedAt WHERE m.messageId IN :ids")
+    int markDeletedCompletely(@Param("ids") Collection<Long> ids, @Param("deletedAt") LocalDateTime deletedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.replyToMessage = NULL WHERE m.messageId IN :ids AND m.replyToMessage.messageId IN :parentIds")
+    int detachRepliesFrom(@Param("ids") Collection<Long> ids, @Param("parentIds") Collection<Long> parentIds);
+    
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM Messages m WHERE m.messageId IN :ids")
+    int deleteByMessageIds(@Param("ids") Collection<Long> ids);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.deletedForSender = true, m.deletedAt = :deletedAt " +
+           "WHERE m.messageId IN :ids AND m.sender.user_id = :userId")
+    int markDeletedForSender(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                             @Param("deletedAt") LocalDateTime deletedAt);
+    
+    @Modifying
+    @Transactional
+    @Query("UPDATE Messages m SET m.deletedForReceiver = true, m.deletedAt = :deletedAt " +
+           "WHERE m.messageId IN :ids AND m.sender.user_id <> :userId")
+    int markDeletedForReceiver(@Param("ids") Collection<Long> ids, @Param("userId") Long userId,
+                               @Param("deletedAt") LocalDateTime deletedAt);
+    
     // Admin methods - show all messages including deleted ones
-    @Query("SELECT m FROM Messages m WHERE " +
-           "(m.sender = :user1 AND m.receiver = :user2) OR " +
-           "(m.sender = :user2 AND m.receiver = :user1) " +
-           "ORDER BY m.sentAt ASC")
-    List<Messages> findAllMessagesBetweenUsersForAdmin(@Param("user1") User user1, @Param("user2") User user2);
+    @Query("SELECT m FROM Messages m WHERE m.conversationKey = :conversationKey ORDER BY m.messageId ASC")
+    List<Messages> findAllMessagesBetweenUsersForAdmin(@Param("conversationKey") String conversationKey);
     
     @Query("SELECT m FROM Messages m WHERE m.isDeletedCompletely = true ORDER BY m.deletedAt DESC")
     List<Messages> findAllDeletedMessages();
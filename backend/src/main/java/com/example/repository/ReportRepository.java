@@ -1,11 +1,17 @@
 package com.example.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import com.example.models.Report;
 import com.example.models.Report.ReportStatus;
+import com.example.models.User;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface ReportRepository extends JpaRepository<Report, Long> {
@@ -25,4 +31,39 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
 
     @Query("SELECT COUNT(r) > 0 FROM Report r WHERE r.post.item_id = :postId AND r.reporter.user_id = :reporterId")
     boolean existsByPostIdAndReporterId(@Param("postId") Long postId, @Param("reporterId") Long reporterId);
-} 
\ No newline at end of file
+
+    // Report queue: newest first, keyset on (createdAt, id), everything the queue renders fetched in the same query
+    @Query("SELECT r FROM Report r JOIN FETCH r.post p JOIN FETCH p.user LEFT JOIN FETCH p.location " +
+           "JOIN FETCH r.reporter LEFT JOIN FETCH r.reviewedBy " +
+           "WHERE r.status IN :statuses ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findQueuePage(@Param("statuses") Collection<ReportStatus> statuses, Pageable pageable);
+
+    @Query("SELECT r FROM Report r JOIN FETCH r.post p JOIN FETCH p.user LEFT JOIN FETCH p.location " +
+           "JOIN FETCH r.reporter LEFT JOIN FETCH r.reviewedBy " +
+           "WHERE r.status IN :statuses AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :idBound)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Report> findQueuePageAfter(@Param("statuses") Collection<ReportStatus> statuses,
+                                    @Param("createdAt") LocalDateTime createdAt,
+                                    @Param("idBound") Long idBound,
+                                    Pageable pageable);
+
+    // Resolve every open report of a post with a single UPDATE
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = :newStatus, r.reviewedAt = :reviewedAt, r.reviewedBy = :reviewer " +
+           "WHERE r.post.item_id = :postId AND r.status IN :fromStatuses")
+    int resolveReportsForPost(@Param("postId") Long postId,
+                              @Param("fromStatuses") Collection<ReportStatus> fromStatuses,
+                              @Param("newStatus") ReportStatus newStatus,
+                              @Param("reviewer") User reviewer,
+                              @Param("reviewedAt") LocalDateTime reviewedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE Report r SET r.status = :newStatus, r.reviewedAt = :reviewedAt, r.reviewedBy = :reviewer " +
+           "WHERE r.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("newStatus") ReportStatus newStatus,
+                          @Param("reviewer") User reviewer,
+                          @Param("reviewedAt") LocalDateTime reviewedAt);
+}
@@ -0,0 +1,42 @@
+package com.example.repository;
+
+import com.example.models.StoredImage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface StoredImageRepository extends JpaRepository<StoredImage, String> {
+
+    // Stores each image or, when the same content is already there, takes counts[i] more references on it.
+    // One upsert for all of them, so two concurrent uploads of the same photo cannot both insert.
+    // Hashes must be distinct - ON CONFLICT cannot touch the same row twice in one statement
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO stored_images (hash, content, ref_count, created_at) " +
+                   "SELECT t.hash, t.content, t.refs, now() " +
+                   "FROM unnest(CAST(:hashes AS text[]), CAST(:contents AS text[]), CAST(:counts AS int[])) AS t(hash, content, refs) " +
+                   "ON CONFLICT (hash) DO UPDATE SET ref_count = stored_images.ref_count + EXCLUDED.ref_count, unreferenced_since = NULL",
+           nativeQuery = true)
+    int acquireAll(@Param("hashes") String[] hashes, @Param("contents") String[] contents, @Param("counts") Integer[] counts);
+
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE stored_images SET ref_count = GREATEST(ref_count - :count, 0), " +
+                   "unreferenced_since = CASE WHEN ref_count - :count <= 0 THEN now() ELSE unreferenced_since END " +
+                   "WHERE hash = :hash",
+           nativeQuery = true)
+    int release(@Param("hash") String hash, @Param("count") int count);
+
+    // Removes up to :limit images nobody has referenced for the grace period. The ref_count check is
+    // repeated on the locked row, so an image re-acquired in the meantime is kept
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM stored_images WHERE hash IN (" +
+                   "SELECT hash FROM stored_images WHERE ref_count = 0 " +
+                   "AND unreferenced_since < now() - make_interval(secs => :graceSeconds) LIMIT :limit) " +
+                   "AND ref_count = 0",
+           nativeQuery = true)
+    int deleteUnreferenced(@Param("graceSeconds") long graceSeconds, @Param("limit") int limit);
+}
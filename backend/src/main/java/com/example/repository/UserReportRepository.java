@@ -1,11 +1,17 @@
 package com.example.repository;
 
+import com.example.models.User;
 import com.example.models.UserReport;
 import com.example.models.UserReport.ReportStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface UserReportRepository extends JpaRepository<UserReport, Long> {
@@ -21,6 +27,47 @@ public interface UserReportRepository extends JpaRepository<UserReport, Long> {
     @Query("SELECT r FROM UserReport r WHERE r.user.user_id = :userId ORDER BY r.createdAt DESC")
     List<UserReport> findByUserId(@Param("userId") Long userId);
     
-    @Query("SELECT COUNT(r) > 0 FROM UserReport r WHERE :messageId MEMBER OF r.reportedMessageIds")
+    @Query("SELECT COUNT(m) > 0 FROM UserReport r JOIN r.reportedMessageIds m WHERE m = :messageId")
     boolean existsByReportedMessageId(@Param("messageId") Long messageId);
-} 
\ No newline at end of file
+
+    // Which of the given messages appear in any user report - one indexed lookup for a whole reply tree
+    @Query("SELECT DISTINCT m FROM UserReport r JOIN r.reportedMessageIds m WHERE m IN :messageIds")
+    List<Long> findReportedMessageIdsIn(@Param("messageIds") Collection<Long> messageIds);
+
+    // Report queue: newest first, keyset on (createdAt, id), reporter/target/reviewer fetched in the same query
+    @Query("SELECT r FROM UserReport r JOIN FETCH r.user JOIN FETCH r.reporter LEFT JOIN FETCH r.reviewedBy " +
+           "WHERE r.status IN :statuses ORDER BY r.createdAt DESC, r.id DESC")
+    List<UserReport> findQueuePage(@Param("statuses") Collection<ReportStatus> statuses, Pageable pageable);
+
+    @Query("SELECT r FROM UserReport r JOIN FETCH r.user JOIN FETCH r.reporter LEFT JOIN FETCH r.reviewedBy " +
+           "WHERE r.status IN :statuses AND (r.createdAt < :createdAt OR (r.createdAt = :createdAt AND r.id < :idBound)) " +
+           "ORDER BY r.createdAt DESC, r.id DESC")
+    List<UserReport> findQueuePageAfter(@Param("statuses") Collection<ReportStatus> statuses,
+                                        @Param("createdAt") LocalDateTime createdAt,
+                                        @Param("idBound") Long idBound,
+                                        Pageable pageable);
+
+    // Each row: [reportId, messageId] for all given reports in one query
+    @Query("SELECT r.id, m FROM UserReport r JOIN r.reportedMessageIds m WHERE r.id IN :reportIds")
+    List<Object[]> findReportedMessageIdsByReportIds(@Param("reportIds") Collection<Long> reportIds);
+
+    // Resolve every open report against a user with a single UPDATE
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserReport r SET r.status = :newStatus, r.reviewedAt = :reviewedAt, r.reviewedBy = :reviewer " +
+           "WHERE r.user.user_id = :userId AND r.status IN :fromStatuses")
+    int resolveReportsForUser(@Param("userId") Long userId,
+                              @Param("fromStatuses") Collection<ReportStatus> fromStatuses,
+                              @Param("newStatus") ReportStatus newStatus,
+                              @Param("reviewer") User reviewer,
+                              @Param("reviewedAt") LocalDateTime reviewedAt);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE UserReport r SET r.status = :newStatus, r.reviewedAt = :reviewedAt, r.reviewedBy = :reviewer " +
+           "WHERE r.id IN :ids")
+    int updateStatusByIds(@Param("ids") Collection<Long> ids,
+                          @Param("newStatus") ReportStatus newStatus,
+                          @Param("reviewer") User reviewer,
+                          @Param("reviewedAt") LocalDateTime reviewedAt);
+}
@@ -1,23 +1,92 @@
 package com.example.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
+import com.example.models.Role;
 import com.example.models.User;
+import com.example.projection.AdminUserView;
+import com.example.projection.UserPublicView;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
+    // Public views select only the columns listed in UserPublicView
+    String PUBLIC_VIEW_COLUMNS = "u.user_id AS user_id, u.name AS name, u.middle_name AS middle_name, " +
+            "u.surname AS surname, u.nickname AS nickname, u.uniMail AS uniMail, u.created_at AS created_at, " +
+            "u.role AS role, u.profilePhotoUrl AS profilePhotoUrl, u.avatarKey AS avatarKey, u.avatarVersion AS avatarVersion, " +
+            "u.department AS department";
+
     public User findUserByUniMail(String uniMail);
 
     public User findUserByNickname(String nickname);
 
-    @Query("SELECT u FROM User u WHERE " +
+    // Id-only lookup on the unique nickname index
+    @Query("SELECT u.user_id FROM User u WHERE u.nickname = :nickname")
+    Optional<Long> findIdByNickname(@Param("nickname") String nickname);
+
+    @Query("SELECT " + PUBLIC_VIEW_COLUMNS + " FROM User u WHERE " +
             "LOWER(u.name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(u.middle_name) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(u.surname) LIKE LOWER(CONCAT('%', :query, '%')) OR " +
             "LOWER(u.nickname) LIKE LOWER(CONCAT('%', :query, '%'))")
-    public List<User> searchUser(@Param("query") String query);
-}
+    public List<UserPublicView> searchUser(@Param("query") String query);
+
+    @Query("SELECT " + PUBLIC_VIEW_COLUMNS + " FROM User u WHERE u.user_id = :id")
+    Optional<UserPublicView> findPublicViewById(@Param("id") Long id);
+
+    @Query("SELECT " + PUBLIC_VIEW_COLUMNS + " FROM User u WHERE u.uniMail = :uniMail")
+    Optional<UserPublicView> findPublicViewByUniMail(@Param("uniMail") String uniMail);
+
+    // Slices skip the count query; callers page forward with hasNext
+    @Query("SELECT " + PUBLIC_VIEW_COLUMNS + " FROM User u")
+    Slice<UserPublicView> findPublicViews(Pageable pageable);
+
+    // Admin list filters - null means "any". Banned follows User.isCurrentlyBanned, evaluated at :now
+    String BANNED_NOW = "(COALESCE(u.banned_status, false) = true AND (u.banExpiresAt IS NULL OR u.banExpiresAt > :now))";
+    String ADMIN_FILTER = "WHERE (:role IS NULL OR u.role = :role) " +
+            "AND (:verified IS NULL OR COALESCE(u.isVerified, false) = :verified) " +
+            "AND (:department IS NULL OR LOWER(u.department) = LOWER(:department)) " +
+            "AND (:banned IS NULL " +
+            "OR (:banned = true AND " + BANNED_NOW + ") " +
+            "OR (:banned = false AND NOT (" + BANNED_NOW + ")))";
 
+    String ADMIN_VIEW_COLUMNS = "u.user_id AS user_id, u.name AS name, u.surname AS surname, u.nickname AS nickname, " +
+            "u.uniMail AS uniMail, u.department AS department, u.phoneNumber AS phoneNumber, u.studentId AS studentId, " +
+            "u.created_at AS created_at, u.banned_status AS banned_status, u.banExpiresAt AS banExpiresAt, " +
+            "u.banReason AS banReason, u.isVerified AS isVerified, u.role AS role, u.profilePhotoUrl AS profilePhotoUrl, " +
+            "u.avatarKey AS avatarKey, u.avatarVersion AS avatarVersion";
 
+    @Query("SELECT " + ADMIN_VIEW_COLUMNS + " FROM User u " + ADMIN_FILTER)
+    Slice<AdminUserView> findAdminViews(@Param("role") Role role, @Param("verified") Boolean verified,
+                                        @Param("department") String department, @Param("banned") Boolean banned,
+                                        @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT COUNT(u) FROM User u " + ADMIN_FILTER)
+    long countAdminViews(@Param("role") Role role, @Param("verified") Boolean verified,
+                         @Param("department") String department, @Param("banned") Boolean banned,
+                         @Param("now") LocalDateTime now);
+
+    // Every user for the admin export, read through a cursor; the caller must hold a transaction and close the stream
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT " + ADMIN_VIEW_COLUMNS + " FROM User u ORDER BY u.user_id")
+    Stream<AdminUserView> streamAdminViews();
+
+    // Avatar version alone, enough to answer a conditional avatar request without loading the photo
+    @Query("SELECT u.avatarVersion FROM User u WHERE u.user_id = :id")
+    Optional<String> findAvatarVersionById(@Param("id") Long id);
+
+    @Query("SELECT u.avatarKey FROM User u WHERE u.user_id = :id")
+    Optional<String> findAvatarKeyById(@Param("id") Long id);
+
+    @Query("SELECT u.profilePhotoUrl FROM User u WHERE u.user_id = :id")
+    Optional<String> findProfilePhotoById(@Param("id") Long id);
+}
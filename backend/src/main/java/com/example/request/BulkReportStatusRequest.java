@@ -0,0 +1,11 @@
+package com.example.request;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class BulkReportStatusRequest {
+    private List<Long> postReportIds; // ids from the reports table
+    private List<Long> userReportIds; // ids from the user_reports table
+    private String status;            // target status, e.g. DISMISSED or ACTION_TAKEN
+}
@@ -0,0 +1,35 @@
+package com.example.response;
+
+import com.example.projection.AdminPostView;
+
+// One row of the full admin post export, deleted posts included
+public record AdminPostRow(
+        Long id,
+        String title,
+        String description,
+        String type,
+        String category,
+        String location,
+        String createdAt,
+        String userName,
+        String userEmail,
+        String imageBase64,
+        long reportCount,
+        boolean isDeleted) {
+
+    public static AdminPostRow from(AdminPostView post) {
+        return new AdminPostRow(
+                post.getItemId(),
+                post.getTitle(),
+                post.getDescription(),
+                post.getType() != null ? post.getType().toString() : null,
+                post.getCategory() != null ? post.getCategory().toString() : null,
+                post.getLocationNameEn() != null ? post.getLocationNameEn() : "Unknown",
+                post.getDateShared() != null ? post.getDateShared().toString() : null,
+                post.getUserNickname(),
+                post.getUserEmail(),
+                post.getImage(),
+                post.getReportCount() != null ? post.getReportCount() : 0L,
+                Boolean.TRUE.equals(post.getDeleted()));
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.response;
+
+import com.example.projection.AdminUserView;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+
+// One row of the full admin user export
+public record AdminUserRow(
+        Long id,
+        String name,
+        String surname,
+        String nickname,
+        String email,
+        String department,
+        String phoneNumber,
+        String studentId,
+        String createdAt,
+        boolean isBanned,
+        Boolean isVerified,
+        String profilePhotoUrl,
+        String role,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String banExpiresAt,
+        @JsonInclude(JsonInclude.Include.NON_NULL) String banReason) {
+
+    // Same rule as User.isCurrentlyBanned, evaluated at the given time
+    public static AdminUserRow from(AdminUserView user, LocalDateTime now) {
+        boolean banned = Boolean.TRUE.equals(user.getBanned_status())
+                && (user.getBanExpiresAt() == null || now.isBefore(user.getBanExpiresAt()));
+        return new AdminUserRow(
+                user.getUser_id(),
+                user.getName(),
+                user.getSurname(),
+                user.getNickname(),
+                user.getUniMail(),
+                user.getDepartment() != null ? user.getDepartment() : "Unknown",
+                user.getPhoneNumber(),
+                user.getStudentId(),
+                user.getCreated_at() != null ? user.getCreated_at().toString() : null,
+                banned,
+                user.getIsVerified(),
+                user.getProfilePhotoUrl(),
+                user.getRole() != null ? user.getRole().toString() : null,
+                user.getBanExpiresAt() != null ? user.getBanExpiresAt().toString() : null,
+                user.getBanReason());
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+// One rendered page of the public post feed plus the number of posts matching the filters
+@Getter
+@AllArgsConstructor
+public class FeedPage {
+
+    private final List<FeedPost> posts;
+    private final long total;
+}
@@ -0,0 +1,21 @@
+package com.example.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+// One card of the public post feed; the photo and image fields are left out when absent
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record FeedPost(
+        Long id,
+        String title,
+        String description,
+        String type,
+        String category,
+        String location,
+        String createdAt,
+        String userName,
+        String userEmail,
+        Long userId,
+        String userProfilePhoto,
+        String imageBase64,
+        String imageContentType) {
+}
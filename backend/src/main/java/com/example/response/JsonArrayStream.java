@@ -0,0 +1,34 @@
+package com.example.response;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.function.Consumer;
+
+// Writes rows to the response as one JSON array while they are produced, so only the current row is in memory
+public final class JsonArrayStream {
+
+    private JsonArrayStream() {
+    }
+
+    public static StreamingResponseBody of(ObjectMapper objectMapper, Consumer<Consumer<Object>> producer) {
+        return out -> {
+            try (JsonGenerator json = objectMapper.createGenerator(out)) {
+                // The servlet container owns the stream
+                json.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                json.writeStartArray();
+                producer.accept(row -> {
+                    try {
+                        json.writeObject(row);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                json.writeEndArray();
+            }
+        };
+    }
+}
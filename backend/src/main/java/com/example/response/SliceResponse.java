@@ -0,0 +1,26 @@
+package com.example.response;
+
+import org.springframework.data.domain.Slice;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Shared body for paginated list endpoints: items, page, size, hasNext and, when counted, totalElements
+public final class SliceResponse {
+
+    private SliceResponse() {
+    }
+
+    public static Map<String, Object> of(List<?> items, Slice<?> slice, Long total) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("items", items);
+        response.put("page", slice.getNumber());
+        response.put("size", slice.getSize());
+        response.put("hasNext", slice.hasNext());
+        if (total != null) {
+            response.put("totalElements", total);
+        }
+        return response;
+    }
+}
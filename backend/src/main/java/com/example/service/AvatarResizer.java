@@ -0,0 +1,96 @@
+package com.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+// Square JPEG copies of an uploaded avatar, made on the image pool after the upload request has returned
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvatarResizer {
+
+    public static final int[] SIZES = {64, 256};
+
+    private final BlobStore blobStore;
+
+    // Sibling of the original: avatars/<user>/<version>/<size>.jpg
+    public static String variantKey(String originalKey, int size) {
+        return originalKey.substring(0, originalKey.lastIndexOf('/')) + "/" + size + ".jpg";
+    }
+
+    @Async("imageExecutor")
+    public void createSizes(String originalKey) {
+        Resource original = blobStore.read(originalKey).orElse(null);
+        if (original == null) {
+            return;
+        }
+        try (InputStream in = original.getInputStream(); ImageInputStream images = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(images);
+            if (!readers.hasNext()) {
+                return;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(images, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                // Decode at about twice the largest target size rather than at full resolution
+                int step = Math.max(1, Math.min(width, height) / (2 * SIZES[SIZES.length - 1]));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                BufferedImage source = reader.read(0, param);
+                for (int size : SIZES) {
+                    byte[] jpeg = toJpeg(squareThumbnail(source, size));
+                    blobStore.write(variantKey(originalKey, size), new ByteArrayInputStream(jpeg), jpeg.length);
+                }
+            } finally {
+                reader.dispose();
+            }
+        } catch (IOException | RuntimeException e) {
+            // The original keeps being served until a later upload succeeds
+            log.warn("Could not resize avatar {}: {}", originalKey, e.getMessage());
+        }
+    }
+
+    // Centre crop to a square, scaled onto a white background (JPEG has no alpha)
+    private static BufferedImage squareThumbnail(BufferedImage source, int size) {
+        int side = Math.min(source.getWidth(), source.getHeight());
+        int x = (source.getWidth() - side) / 2;
+        int y = (source.getHeight() - side) / 2;
+        BufferedImage target = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, size, size);
+            g.drawImage(source, 0, 0, size, size, x, y, x + side, y + side, null);
+        } finally {
+            g.dispose();
+        }
+        return target;
+    }
+
+    private static byte[] toJpeg(BufferedImage image) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "jpg", out);
+        return out.toByteArray();
+    }
+}
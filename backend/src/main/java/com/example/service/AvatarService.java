@@ -0,0 +1,16 @@
+package com.example.service;
+
+import com.example.models.User;
+import org.springframework.core.io.Resource;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Optional;
+
+public interface AvatarService {
+
+    // Stores the upload as the user's avatar and schedules the resized copies; returns the new avatar link
+    String storeAvatar(User user, MultipartFile file) throws Exception;
+
+    // The stored avatar at 64, 256 (default) or "original" size; the original stands in while a resized copy is not ready
+    Optional<Resource> openAvatar(String avatarKey, String size);
+}
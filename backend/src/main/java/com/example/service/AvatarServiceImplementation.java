@@ -0,0 +1,109 @@
+package com.example.service;
+
+import com.example.models.User;
+import com.example.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AvatarServiceImplementation implements AvatarService {
+
+    private static final long MAX_BYTES = 5L * 1024 * 1024;
+    private static final int MAX_DIMENSION = 4096;
+
+    private final BlobStore blobStore;
+    private final AvatarResizer avatarResizer;
+    private final AvatarUrls avatarUrls;
+    private final UserRepository userRepository;
+    private final FeedVersion feedVersion;
+
+    @Override
+    public String storeAvatar(User user, MultipartFile file) throws Exception {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("File is empty");
+        }
+        if (file.getSize() > MAX_BYTES) {
+            throw new IllegalArgumentException("File size too large: " + file.getSize());
+        }
+        // Only the header is read here; a huge or bogus image is rejected before anything is decoded
+        String extension = checkImageHeader(file);
+
+        String version = UUID.randomUUID().toString().replace("-", "").substring(0, 16);
+        String originalKey = "avatars/" + user.getUser_id() + "/" + version + "/original." + extension;
+        try (InputStream in = file.getInputStream()) {
+            blobStore.write(originalKey, in, MAX_BYTES);
+        }
+
+        String previousKey = user.getAvatarKey();
+        user.setAvatarBlob(originalKey, version);
+        userRepository.save(user);
+        // Feed cards link to the avatar by version
+        feedVersion.bump();
+
+        avatarResizer.createSizes(originalKey);
+        if (previousKey != null) {
+            try {
+                blobStore.delete(previousKey.substring(0, previousKey.lastIndexOf('/')));
+            } catch (IOException e) {
+                log.warn("Could not remove previous avatar {}: {}", previousKey, e.getMessage());
+            }
+        }
+        return avatarUrls.of(user.getUser_id(), version);
+    }
+
+    @Override
+    public Optional<Resource> openAvatar(String avatarKey, String size) {
+        if ("original".equals(size)) {
+            return blobStore.read(avatarKey);
+        }
+        int wanted = size != null ? parseSize(size) : AvatarResizer.SIZES[AvatarResizer.SIZES.length - 1];
+        Optional<Resource> resized = blobStore.read(AvatarResizer.variantKey(avatarKey, wanted));
+        return resized.isPresent() ? resized : blobStore.read(avatarKey);
+    }
+
+    private static int parseSize(String size) {
+        for (int available : AvatarResizer.SIZES) {
+            if (String.valueOf(available).equals(size)) {
+                return available;
+            }
+        }
+        throw new IllegalArgumentException("Unknown avatar size: " + size);
+    }
+
+    // Checks format and pixel size from the image header; returns the file extension for the format
+    private static String checkImageHeader(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream(); ImageInputStream images = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = images != null ? ImageIO.getImageReaders(images) : null;
+            if (readers == null || !readers.hasNext()) {
+                throw new IllegalArgumentException("Unsupported image format");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(images, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if (width > MAX_DIMENSION || height > MAX_DIMENSION) {
+                    throw new IllegalArgumentException("Image is larger than " + MAX_DIMENSION + "x" + MAX_DIMENSION);
+                }
+                String format = reader.getFormatName().toLowerCase();
+                return format.equals("jpeg") ? "jpg" : format;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+}
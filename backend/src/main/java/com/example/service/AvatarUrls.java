@@ -0,0 +1,52 @@
+package com.example.service;
+
+import com.example.models.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Links to the avatar resource, used by list responses instead of the inline photo. The version in
+ * the link changes with the photo, so the avatar itself can be cached by the browser for good.
+ */
+@Component
+public class AvatarUrls {
+
+    private final String baseUrl;
+
+    public AvatarUrls(@Value("${app.public-base-url:http://localhost:8080}") String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+    }
+
+    // Avatar link for the user, or null when they have no photo
+    public String of(User user) {
+        if (user == null) {
+            return null;
+        }
+        return forColumns(user.getUser_id(), user.getProfilePhotoUrl(), user.getAvatarKey(), user.getAvatarVersion());
+    }
+
+    // Same from the raw users columns; projections call this through SpEL
+    public String forColumns(Long userId, String profilePhotoUrl, String avatarKey, String avatarVersion) {
+        if (avatarKey != null) {
+            return of(userId, avatarVersion);
+        }
+        if (profilePhotoUrl == null) {
+            return null;
+        }
+        if (!profilePhotoUrl.startsWith("data:")) {
+            // An external link, nothing to save
+            return profilePhotoUrl;
+        }
+        return of(userId, avatarVersion);
+    }
+
+    // Whether the url points at this user's own avatar endpoint (as handed out by the API, any version)
+    public boolean isAvatarLinkOf(Long userId, String url) {
+        return url != null && url.startsWith(baseUrl + "/api/v1/users/" + userId + "/avatar");
+    }
+
+    public String of(Long userId, String avatarVersion) {
+        String url = baseUrl + "/api/v1/users/" + userId + "/avatar";
+        return avatarVersion != null ? url + "?v=" + avatarVersion : url;
+    }
+}
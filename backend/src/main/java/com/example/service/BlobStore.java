@@ -0,0 +1,21 @@
+package com.example.service;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+// Binary payloads (photos) kept outside the database, addressed by a slash-separated key
+public interface BlobStore {
+
+    // Copies the stream into the blob; more than maxBytes fails the write and nothing is left behind
+    void write(String key, InputStream content, long maxBytes) throws IOException;
+
+    Optional<Resource> read(String key);
+
+    boolean exists(String key);
+
+    // Removes the blob at the key and everything under it
+    void delete(String key) throws IOException;
+}
@@ -0,0 +1,81 @@
+package com.example.service;
+
+import com.example.response.FeedPage;
+import com.example.response.FeedPost;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Result caches for the anonymous post feed and its facet counts.
+ *
+ * Keys carry the current {@link FeedVersion}, so a post write retires every cached page without scanning
+ * the cache; stale entries simply age out. Loads go through Caffeine's per-key compute, so concurrent
+ * misses for the same filters wait for a single database query instead of each running their own.
+ */
+@Component
+@RequiredArgsConstructor
+public class FeedCache {
+
+    private final FeedVersion feedVersion;
+
+    // Pages carry inline base64 images, so the bound is on approximate payload size rather than entry count
+    private final Cache<String, FeedPage> posts = Caffeine.newBuilder()
+        .maximumWeight(64L * 1024 * 1024)
+        .weigher((String key, FeedPage page) -> weigh(page))
+        .expireAfterWrite(Duration.ofMinutes(5))
+        .recordStats()
+        .build();
+
+    private final Cache<String, Map<String, Object>> facets = Caffeine.newBuilder()
+        .maximumSize(500)
+        .expireAfterWrite(Duration.ofMinutes(10))
+        .recordStats()
+        .build();
+
+    public FeedPage posts(String signature, Supplier<FeedPage> loader) {
+        return posts.get(feedVersion.current() + "|" + signature, key -> loader.get());
+    }
+
+    public Map<String, Object> facets(String signature, Supplier<Map<String, Object>> loader) {
+        return facets.get(feedVersion.current() + "|" + signature, key -> loader.get());
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("feedVersion", feedVersion.current());
+        stats.put("posts", describe(posts));
+        stats.put("facets", describe(facets));
+        return stats;
+    }
+
+    // Roughly the characters held by a page: image payloads plus a flat allowance for the other fields
+    private static int weigh(FeedPage page) {
+        long weight = 0;
+        for (FeedPost post : page.getPosts()) {
+            weight += 512 + (post.imageBase64() != null ? post.imageBase64().length() : 0);
+        }
+        return (int) Math.min(weight, Integer.MAX_VALUE);
+    }
+
+    private static Map<String, Object> describe(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new HashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hits", stats.hitCount());
+        result.put("misses", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("loads", stats.loadCount());
+        result.put("loadFailures", stats.loadFailureCount());
+        result.put("averageLoadMillis", stats.averageLoadPenalty() / 1_000_000.0);
+        result.put("evictions", stats.evictionCount());
+        return result;
+    }
+}
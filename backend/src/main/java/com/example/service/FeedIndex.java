@@ -0,0 +1,357 @@
+package com.example.service;
+
+import com.example.models.Category;
+import com.example.models.Item;
+import com.example.models.ItemType;
+import com.example.projection.FeedIndexRow;
+import com.example.repository.ItemRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of live posts for the feed filters.
+ *
+ * Every live item occupies one slot; slots are kept in (dateShared, item_id) order so a date range is
+ * a binary search and feed order is slot order. Type, category and location each have one bitset per
+ * value, so a filter is a handful of bitset ANDs/ORs and facet counts are cardinalities. Deleted items
+ * only lose their live bit; the arrays are compacted once enough tombstones pile up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FeedIndex {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int COMPACT_MIN_TOMBSTONES = 1024;
+    private static final long NO_LOCATION = 0L;
+    private static final long NO_DATE = Long.MIN_VALUE;
+
+    private final ItemRepository itemRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] itemIds;
+    private long[] dates;
+    private byte[] types;
+    private byte[] categories;
+    private long[] locations;
+    private int size;
+    private int tombstones;
+
+    private BitSet live;
+    private BitSet[] byType;
+    private BitSet[] byCategory;
+    private Map<Long, BitSet> byLocation;
+    private Map<Long, Integer> slotByItemId;
+
+    private volatile boolean ready;
+
+    public record Filter(ItemType type, Collection<Category> categories, Collection<Long> locationIds,
+                         LocalDateTime from, LocalDateTime to) {
+    }
+
+    public record Result(List<Long> itemIds, int total) {
+    }
+
+    public record Facets(Map<ItemType, Integer> types, Map<Category, Integer> categories,
+                         Map<Long, Integer> locations, int total) {
+    }
+
+    private enum Dimension { TYPE, CATEGORY, LOCATION }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        // The write lock is held across the query so a post created meanwhile is added after the snapshot, never lost
+        lock.writeLock().lock();
+        try {
+            List<FeedIndexRow> rows = itemRepository.findFeedIndexRows();
+            reset(Math.max(INITIAL_CAPACITY, rows.size()));
+            for (FeedIndexRow row : rows) {
+                append(row.getItemId(), epochMillis(row.getDateShared()), row.getType(), row.getCategory(), row.getLocationId());
+            }
+            ready = true;
+            log.info("Feed index loaded with {} live posts", size);
+        } catch (RuntimeException e) {
+            // The feed keeps working through SQL; only the fast path is lost
+            ready = false;
+            log.warn("Feed index could not be loaded, falling back to SQL: {}", e.getMessage());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(Item item) {
+        if (item == null || item.getItem_id() == null || Boolean.TRUE.equals(item.getDeleted())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready || slotByItemId.containsKey(item.getItem_id())) {
+                return;
+            }
+            long date = epochMillis(item.getDateShared());
+            boolean inOrder = size == 0 || compare(date, item.getItem_id(), dates[size - 1], itemIds[size - 1]) >= 0;
+            Long locationId = item.getLocation() != null ? item.getLocation().getLocation_id() : null;
+            append(item.getItem_id(), date, item.getType(), item.getCategory(), locationId);
+            if (!inOrder) {
+                // Rare: two posts saved concurrently committed out of order - re-sort the slots
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long itemId) {
+        if (itemId == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (!ready) {
+                return;
+            }
+            Integer slot = slotByItemId.remove(itemId);
+            if (slot == null) {
+                return;
+            }
+            live.clear(slot);
+            tombstones++;
+            if (tombstones >= COMPACT_MIN_TOMBSTONES && tombstones * 2 > size) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Matching item ids in feed order (newest first unless ascending) plus the total match count
+    public Result query(Filter filter, boolean ascending, int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet match = matching(filter, null);
+            int total = match.cardinality();
+            List<Long> ids = new ArrayList<>(Math.max(0, Math.min(limit, total - offset)));
+            int skipped = 0;
+            if (ascending) {
+                for (int i = match.nextSetBit(0); i >= 0 && ids.size() < limit; i = match.nextSetBit(i + 1)) {
+                    if (skipped < offset) {
+                        skipped++;
+                        continue;
+                    }
+                    ids.add(itemIds[i]);
+                }
+            } else {
+                for (int i = match.previousSetBit(size - 1); i >= 0 && ids.size() < limit; i = match.previousSetBit(i - 1)) {
+                    if (skipped < offset) {
+                        skipped++;
+                        continue;
+                    }
+                    ids.add(itemIds[i]);
+                }
+            }
+            return new Result(ids, total);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Per-value counts; each dimension ignores its own filter so the UI can show what switching a value would give
+    public Facets facets(Filter filter) {
+        lock.readLock().lock();
+        try {
+            Map<ItemType, Integer> typeCounts = new EnumMap<>(ItemType.class);
+            BitSet withoutType = matching(filter, Dimension.TYPE);
+            for (ItemType type : ItemType.values()) {
+                typeCounts.put(type, intersectionCount(withoutType, byType[type.ordinal()]));
+            }
+
+            Map<Category, Integer> categoryCounts = new EnumMap<>(Category.class);
+            BitSet withoutCategory = matching(filter, Dimension.CATEGORY);
+            for (Category category : Category.values()) {
+                categoryCounts.put(category, intersectionCount(withoutCategory, byCategory[category.ordinal()]));
+            }
+
+            Map<Long, Integer> locationCounts = new HashMap<>();
+            BitSet withoutLocation = matching(filter, Dimension.LOCATION);
+            for (Map.Entry<Long, BitSet> entry : byLocation.entrySet()) {
+                if (entry.getKey() != NO_LOCATION) {
+                    locationCounts.put(entry.getKey(), intersectionCount(withoutLocation, entry.getValue()));
+                }
+            }
+
+            return new Facets(typeCounts, categoryCounts, locationCounts, matching(filter, null).cardinality());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet matching(Filter filter, Dimension skip) {
+        BitSet result = (BitSet) live.clone();
+        if (filter.from() != null) {
+            result.clear(0, lowerBound(epochMillis(filter.from())));
+        }
+        if (filter.to() != null) {
+            result.clear(upperBound(epochMillis(filter.to())), size);
+        }
+        if (skip != Dimension.TYPE && filter.type() != null) {
+            result.and(byType[filter.type().ordinal()]);
+        }
+        if (skip != Dimension.CATEGORY && filter.categories() != null && !filter.categories().isEmpty()) {
+            BitSet any = new BitSet(size);
+            for (Category category : filter.categories()) {
+                any.or(byCategory[category.ordinal()]);
+            }
+            result.and(any);
+        }
+        if (skip != Dimension.LOCATION && filter.locationIds() != null && !filter.locationIds().isEmpty()) {
+            BitSet any = new BitSet(size);
+            for (Long locationId : filter.locationIds()) {
+                BitSet bits = byLocation.get(locationId);
+                if (bits != null) {
+                    any.or(bits);
+                }
+            }
+            result.and(any);
+        }
+        return result;
+    }
+
+    private static int intersectionCount(BitSet base, BitSet other) {
+        BitSet copy = (BitSet) base.clone();
+        copy.and(other);
+        return copy.cardinality();
+    }
+
+    // First slot dated at or after the given time
+    private int lowerBound(long date) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] < date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First slot dated strictly after the given time
+    private int upperBound(long date) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (dates[mid] <= date) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private void reset(int capacity) {
+        itemIds = new long[capacity];
+        dates = new long[capacity];
+        types = new byte[capacity];
+        categories = new byte[capacity];
+        locations = new long[capacity];
+        size = 0;
+        tombstones = 0;
+        live = new BitSet(capacity);
+        byType = new BitSet[ItemType.values().length];
+        for (int i = 0; i < byType.length; i++) {
+            byType[i] = new BitSet(capacity);
+        }
+        byCategory = new BitSet[Category.values().length];
+        for (int i = 0; i < byCategory.length; i++) {
+            byCategory[i] = new BitSet(capacity);
+        }
+        byLocation = new HashMap<>();
+        slotByItemId = new HashMap<>(capacity * 2);
+    }
+
+    private void append(long itemId, long date, ItemType type, Category category, Long locationId) {
+        if (size == itemIds.length) {
+            int capacity = itemIds.length * 2;
+            itemIds = Arrays.copyOf(itemIds, capacity);
+            dates = Arrays.copyOf(dates, capacity);
+            types = Arrays.copyOf(types, capacity);
+            categories = Arrays.copyOf(categories, capacity);
+            locations = Arrays.copyOf(locations, capacity);
+        }
+        int slot = size++;
+        long location = locationId != null ? locationId : NO_LOCATION;
+        itemIds[slot] = itemId;
+        dates[slot] = date;
+        types[slot] = (byte) (type != null ? type.ordinal() : -1);
+        categories[slot] = (byte) (category != null ? category.ordinal() : -1);
+        locations[slot] = location;
+        live.set(slot);
+        if (type != null) {
+            byType[type.ordinal()].set(slot);
+        }
+        if (category != null) {
+            byCategory[category.ordinal()].set(slot);
+        }
+        byLocation.computeIfAbsent(location, key -> new BitSet()).set(slot);
+        slotByItemId.put(itemId, slot);
+    }
+
+    // Rebuilds the slot arrays from the live slots only, in (dateShared, item_id) order
+    private void compact() {
+        Integer[] order = new Integer[live.cardinality()];
+        int n = 0;
+        for (int i = live.nextSetBit(0); i >= 0; i = live.nextSetBit(i + 1)) {
+            order[n++] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(dates[a], itemIds[a], dates[b], itemIds[b]));
+
+        long[] oldIds = itemIds;
+        long[] oldDates = dates;
+        byte[] oldTypes = types;
+        byte[] oldCategories = categories;
+        long[] oldLocations = locations;
+        ItemType[] typeValues = ItemType.values();
+        Category[] categoryValues = Category.values();
+
+        reset(Math.max(INITIAL_CAPACITY, order.length));
+        for (int slot : order) {
+            append(oldIds[slot], oldDates[slot],
+                oldTypes[slot] >= 0 ? typeValues[oldTypes[slot]] : null,
+                oldCategories[slot] >= 0 ? categoryValues[oldCategories[slot]] : null,
+                oldLocations[slot]);
+        }
+    }
+
+    private static int compare(long dateA, long idA, long dateB, long idB) {
+        int byDate = Long.compare(dateA, dateB);
+        return byDate != 0 ? byDate : Long.compare(idA, idB);
+    }
+
+    private static long epochMillis(LocalDateTime date) {
+        return date != null ? date.toInstant(ZoneOffset.UTC).toEpochMilli() : NO_DATE;
+    }
+}
@@ -0,0 +1,31 @@
+package com.example.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Global write counter for the post feed. Every create or delete of a post, and every owner profile edit,
+ * bumps it; anything cached about the feed carries the version it was computed at, so a bump retires all
+ * of it at once.
+ */
+@Component
+public class FeedVersion {
+
+    private final AtomicLong version = new AtomicLong();
+    // Distinguishes this process, so validators handed out before a restart never match the reset counter
+    private final String bootStamp = Long.toString(System.currentTimeMillis(), 36);
+
+    public long current() {
+        return version.get();
+    }
+
+    public long bump() {
+        return version.incrementAndGet();
+    }
+
+    // HTTP validator for feed responses: changes exactly when the version does
+    public String etag() {
+        return "\"feed-" + bootStamp + "-" + version.get() + "\"";
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.service;
+
+import com.example.models.StoredImage;
+import com.example.repository.StoredImageRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content-addressed store for post and message images. The same photo forwarded in several messages
+ * or reposted as an item is stored once; each row using it holds one reference. Releasing the last
+ * reference only marks the image, the reclaim job deletes it after a grace period.
+ */
+@Slf4j
+@Service
+public class ImageStore {
+
+    private static final int RECLAIM_BATCH = 500;
+
+    private final StoredImageRepository storedImageRepository;
+    private final long reclaimGraceSeconds;
+
+    public ImageStore(StoredImageRepository storedImageRepository,
+                      @Value("${app.images.reclaim-grace:PT1H}") Duration reclaimGrace) {
+        this.storedImageRepository = storedImageRepository;
+        this.reclaimGraceSeconds = reclaimGrace.toSeconds();
+    }
+
+    // SHA-256 hex of the payload as sent; 0022_create_stored_images.sql computes the same in SQL
+    public static String hashOf(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Takes a reference on the image, storing it if the content is new; null when there is no image
+    public StoredImage acquire(String content) {
+        return acquireAll(Collections.singletonList(content)).get(0);
+    }
+
+    // One reference per entry, in a single statement however many images there are. The result lines up
+    // with the input and holds null where there is no image
+    public List<StoredImage> acquireAll(List<String> contents) {
+        List<String> hashes = new ArrayList<>(contents.size());
+        Map<String, String> contentByHash = new LinkedHashMap<>();
+        Map<String, Integer> counts = new HashMap<>();
+        for (String content : contents) {
+            if (content == null || content.isEmpty()) {
+                hashes.add(null);
+                continue;
+            }
+            String hash = hashOf(content);
+            hashes.add(hash);
+            contentByHash.putIfAbsent(hash, content);
+            counts.merge(hash, 1, Integer::sum);
+        }
+        if (!contentByHash.isEmpty()) {
+            storedImageRepository.acquireAll(
+                contentByHash.keySet().toArray(new String[0]),
+                contentByHash.values().toArray(new String[0]),
+                contentByHash.keySet().stream().map(counts::get).toArray(Integer[]::new));
+        }
+
+        List<StoredImage> images = new ArrayList<>(hashes.size());
+        for (String hash : hashes) {
+            images.add(hash != null ? storedImageRepository.getReferenceById(hash) : null);
+        }
+        return images;
+    }
+
+    // Gives up one reference per occurrence of a hash; one statement per distinct image
+    public void release(Collection<String> hashes) {
+        Map<String, Integer> counts = new HashMap<>();
+        for (String hash : hashes) {
+            if (hash != null) {
+                counts.merge(hash, 1, Integer::sum);
+            }
+        }
+        counts.forEach(storedImageRepository::release);
+    }
+
+    @Scheduled(fixedDelayString = "${app.images.reclaim-interval:PT15M}",
+               initialDelayString = "${app.images.reclaim-interval:PT15M}")
+    public void reclaimUnreferenced() {
+        try {
+            int total = 0;
+            int removed;
+            do {
+                removed = storedImageRepository.deleteUnreferenced(reclaimGraceSeconds, RECLAIM_BATCH);
+                total += removed;
+            } while (removed == RECLAIM_BATCH);
+            if (total > 0) {
+                log.info("Reclaimed {} unreferenced images", total);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Image reclaim failed, will retry on the next run: {}", e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package com.example.service;
 import com.example.models.Item;
+import com.example.projection.ItemView;
+import com.example.response.AdminPostRow;
+import com.example.response.FeedPage;
+import org.springframework.data.domain.Page;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 public interface ItemService {
     Item createNewItem(Item item, Long userId) throws Exception;
     String deleteItem(Long itemId, Long userId) throws  Exception;
@@ -8,12 +14,30 @@ public interface ItemService {
     List<Item> findItemByUserNickname(String userNickname) throws  Exception;
 
     List<Item> findItemByUserId(Long userId) throws  Exception;
+
+    Map<String, Object> findItemSummariesByUserId(Long userId, int page, int size);
+
+    Map<String, Object> findItemSummariesByUserNickname(String userNickname, int page, int size) throws Exception;
+
+    String findItemImage(Long itemId) throws Exception;
     Item findItemById(Long itemId) throws Exception;
+    ItemView findItemViewById(Long itemId) throws Exception;
 
     List<Item> findAllItems() throws Exception;
 
     List<Item> findItemByType(String type) throws Exception;
 
     List<Item> filterItems(String type, List<String> categories, List<String> locations, String search, String sortOrder) throws Exception;
+
+    Page<Item> findFeed(String type, List<String> categories, List<String> locations, String search,
+                        String dateStart, String dateEnd, String sortOrder, Integer page, Integer size);
+
+    FeedPage getFeedPage(String type, List<String> categories, List<String> locations, String search,
+                         String dateStart, String dateEnd, String sortOrder, Integer page, Integer size);
+
+    Map<String, Object> getFeedFacets(String type, List<String> categories, List<String> locations, String search,
+                                      String dateStart, String dateEnd);
     Item findItemByIdForAdmin(Long postId) throws Exception;
+    void streamAdminPosts(Consumer<AdminPostRow> sink);
+    void deleteItemAsAdmin(Item item);
 }
@@ -4,14 +4,41 @@ import java.util.List;
 import com.example.models.Item;
 import com.example.models.User;
 import com.example.models.Location;
+import com.example.projection.ItemSummaryView;
+import com.example.projection.ItemView;
 import com.example.repository.ItemRepository;
 import com.example.repository.ReportRepository;
+import com.example.repository.UserRepository;
+import com.example.projection.AdminPostView;
+import com.example.response.AdminPostRow;
+import com.example.response.FeedPage;
+import com.example.response.FeedPost;
+import com.example.response.SliceResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import lombok.extern.slf4j.Slf4j;
 import lombok.RequiredArgsConstructor;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeSet;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -22,8 +49,21 @@ public class ItemServiceImplementation implements ItemService {
     private final UserService userService;
     private final LocationService locationService;
     private final ReportRepository reportRepository;
+    private final StatsService statsService;
+    private final UserRepository userRepository;
+    private final FeedIndex feedIndex;
+    private final FeedVersion feedVersion;
+    private final FeedCache feedCache;
+    private final AvatarUrls avatarUrls;
+    private final ImageStore imageStore;
+
+    // Postgres caps bind parameters per statement, so large id lists are loaded in chunks
+    private static final int FEED_LOAD_CHUNK = 1000;
+    private static final LocalDateTime FEED_MIN_DATE = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime FEED_MAX_DATE = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
 
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public Item createNewItem(Item item, Long userId) throws Exception {
 
         User user = userService.findUserById(userId);
@@ -31,7 +71,7 @@ public class ItemServiceImplementation implements ItemService {
         Item newItem = new Item();
         newItem.setItem_id(item.getItem_id());
         newItem.setDescription(item.getDescription());
-        newItem.setImage(item.getImage());
+        newItem.setStoredImage(imageStore.acquire(item.getImage()));
         newItem.setDateShared(LocalDateTime.now());
         newItem.setDeleted(false);
         newItem.setType(item.getType());
@@ -40,7 +80,18 @@ public class ItemServiceImplementation implements ItemService {
         newItem.setUser(user);
         newItem.setTitle(item.getTitle());
 
-        return itemRepository.save(newItem);
+        // The image reference and the post commit together; a failed insert gives the reference back
+        Item savedItem = itemRepository.save(newItem);
+        statsService.recordItemCreated(savedItem);
+        // Readers of the index and the feed cache must not see the post before it is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                feedIndex.add(savedItem);
+                feedVersion.bump();
+            }
+        });
+        return savedItem;
     }
 
     @Override
@@ -58,11 +109,27 @@ public class ItemServiceImplementation implements ItemService {
             throw new Exception("This post has been reported and cannot be deleted. Please contact an administrator.");
         }
         
+        markDeleted(item);
+        
+        return "Post deleted successfully";
+    }
+
+    @Override
+    public void deleteItemAsAdmin(Item item) {
+        // Admin'ler raporlanmış post'ları da silebilir
+        markDeleted(item);
+    }
+
+    private void markDeleted(Item item) {
+        boolean wasDeleted = Boolean.TRUE.equals(item.getDeleted());
         // Soft delete: Set deleted flag to true instead of hard delete
         item.setDeleted(true);
         itemRepository.save(item);
-        
-        return "Post deleted successfully";
+        if (!wasDeleted) {
+            statsService.recordItemDeleted(item);
+            feedIndex.remove(item.getItem_id());
+            feedVersion.bump();
+        }
     }
 
     @Override
@@ -83,6 +150,29 @@ public class ItemServiceImplementation implements ItemService {
         return items;
     }
 
+    @Override
+    public Map<String, Object> findItemSummariesByUserId(Long userId, int page, int size) {
+        Slice<ItemSummaryView> slice = itemRepository.findSummariesByUserId(userId, PageRequest.of(page, size));
+        return SliceResponse.of(slice.getContent(), slice, null);
+    }
+
+    @Override
+    public Map<String, Object> findItemSummariesByUserNickname(String userNickname, int page, int size) throws Exception {
+        // Resolve the id on the nickname index first so the item query needs no join to users
+        Long userId = userRepository.findIdByNickname(userNickname)
+            .orElseThrow(() -> new Exception("user not exist with nickname " + userNickname));
+        return findItemSummariesByUserId(userId, page, size);
+    }
+
+    @Override
+    public String findItemImage(Long itemId) throws Exception {
+        String image = itemRepository.findImageById(itemId).orElse(null);
+        if (image == null || image.isEmpty()) {
+            throw new Exception("no image for item " + itemId);
+        }
+        return image;
+    }
+
     @Override
     public Item findItemById(Long itemId) throws  Exception{
         Optional<Item> item = itemRepository.findById(itemId);
@@ -96,6 +186,15 @@ public class ItemServiceImplementation implements ItemService {
         }
         throw new Exception("item not exist with itemid " + itemId);
     }
+    @Override
+    public ItemView findItemViewById(Long itemId) throws Exception {
+        Optional<ItemView> item = itemRepository.findViewById(itemId);
+        if(item.isPresent()) {
+            return item.get();
+        }
+        throw new Exception("item not exist with itemid " + itemId);
+    }
+
         // Admin için deleted post'ları da bulabilen fonksiyon
     @Override
     public Item findItemByIdForAdmin(Long itemId) throws Exception {
@@ -106,6 +205,14 @@ public class ItemServiceImplementation implements ItemService {
         throw new Exception("item not exist with itemid " + itemId);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void streamAdminPosts(Consumer<AdminPostRow> sink) {
+        try (Stream<AdminPostView> posts = itemRepository.streamAdminViews()) {
+            posts.forEach(post -> sink.accept(AdminPostRow.from(post)));
+        }
+    }
+
     @Override
     public List<Item> findAllItems() {
         return itemRepository.findAll();
@@ -123,22 +230,236 @@ public class ItemServiceImplementation implements ItemService {
     }
 
     @Override
-    public List<Item> filterItems(String type, List<String> categories, List<String> locations, String search, String sortOrder) throws Exception {
-        com.example.models.ItemType itemType = null;
-        if (type != null && !type.isEmpty() && !type.equalsIgnoreCase("all")) {
-            String enumType = type.substring(0, 1).toUpperCase() + type.substring(1).toLowerCase();
-            itemType = com.example.models.ItemType.valueOf(enumType);
+    public List<Item> filterItems(String type, List<String> categories, List<String> locations, String search, String sortOrder) {
+        List<String> locationNames = (locations != null && !locations.isEmpty()) ? locations : null;
+        String searchQuery = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
+        // A plain ORDER BY date_shared (instead of a CASE expression) lets the planner walk the date index
+        Sort.Direction direction = isAscending(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        return itemRepository.filterItems(parseItemType(type), parseCategories(categories), locationNames, searchQuery, Sort.by(direction, "dateShared"));
+    }
+
+    @Override
+    public Page<Item> findFeed(String type, List<String> categories, List<String> locations, String search,
+                               String dateStart, String dateEnd, String sortOrder, Integer page, Integer size) {
+        Pageable pageable = (page != null && size != null) ? PageRequest.of(page, size) : Pageable.unpaged();
+        LocalDateTime from = parseFeedDate(dateStart, false);
+        LocalDateTime to = parseFeedDate(dateEnd, true);
+        boolean hasSearch = search != null && !search.trim().isEmpty();
+
+        if (!hasSearch && feedIndex.isReady()) {
+            FeedIndex.Filter filter = new FeedIndex.Filter(parseItemType(type), parseCategories(categories),
+                resolveLocationIds(locations, locationIdsByName()), from, to);
+            int offset = pageable.isPaged() ? (int) pageable.getOffset() : 0;
+            int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+            FeedIndex.Result result = feedIndex.query(filter, isAscending(sortOrder), offset, limit);
+            return new PageImpl<>(loadInOrder(result.itemIds()), pageable, result.total());
+        }
+
+        // Text search is not indexed in memory, so it stays on SQL: the page of ids is cut in the query,
+        // and only its cards are loaded
+        Sort.Direction direction = isAscending(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+        Sort sort = Sort.by(direction, "dateShared", "item_id");
+        Page<Long> ids = itemRepository.findFeedIds(parseItemType(type), parseCategories(categories),
+            (locations != null && !locations.isEmpty()) ? locations : null, hasSearch ? search.trim() : null,
+            from != null ? from : FEED_MIN_DATE, to != null ? to : FEED_MAX_DATE,
+            pageable.isPaged() ? PageRequest.of(pageable.getPageNumber(), pageable.getPageSize(), sort) : Pageable.unpaged(sort));
+        return new PageImpl<>(loadInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    @Override
+    public FeedPage getFeedPage(String type, List<String> categories, List<String> locations, String search,
+                                String dateStart, String dateEnd, String sortOrder, Integer page, Integer size) {
+        String signature = feedSignature(type, categories, locations, search, dateStart, dateEnd)
+            + "|s=" + (isAscending(sortOrder) ? "asc" : "desc")
+            + "|p=" + (page == null ? "" : page + "x" + size);
+        return feedCache.posts(signature, () -> {
+            Page<Item> feed = findFeed(type, categories, locations, search, dateStart, dateEnd, sortOrder, page, size);
+            List<FeedPost> posts = feed.getContent().stream()
+                .map(this::toFeedPost)
+                .collect(Collectors.toList());
+            return new FeedPage(posts, feed.getTotalElements());
+        });
+    }
+
+    @Override
+    public Map<String, Object> getFeedFacets(String type, List<String> categories, List<String> locations, String search,
+                                             String dateStart, String dateEnd) {
+        return feedCache.facets(feedSignature(type, categories, locations, search, dateStart, dateEnd),
+            () -> computeFeedFacets(type, categories, locations, search, dateStart, dateEnd));
+    }
+
+    // The feed card as the home page renders it
+    private FeedPost toFeedPost(Item item) {
+        boolean hasImage = item.getImage() != null;
+        return new FeedPost(
+            item.getItem_id(),
+            item.getTitle(),
+            item.getDescription(),
+            item.getType().toString(),
+            item.getCategory().toString(),
+            item.getLocation() != null ? item.getLocation().getNameEn() : null,
+            item.getDateShared().toString(),
+            item.getUser().getNickname(),
+            item.getUser().getUniMail(),
+            item.getUser().getUser_id(),
+            avatarUrls.of(item.getUser()),
+            hasImage ? item.getImage() : null,
+            hasImage ? "image/jpeg" : null);
+    }
+
+    private Map<String, Object> computeFeedFacets(String type, List<String> categories, List<String> locations, String search,
+                                                  String dateStart, String dateEnd) {
+        com.example.models.ItemType itemType = parseItemType(type);
+        List<com.example.models.Category> categoryEnums = parseCategories(categories);
+        LocalDateTime from = parseFeedDate(dateStart, false);
+        LocalDateTime to = parseFeedDate(dateEnd, true);
+
+        Map<String, Integer> typeCounts = new LinkedHashMap<>();
+        for (com.example.models.ItemType value : com.example.models.ItemType.values()) {
+            typeCounts.put(value.name(), 0);
+        }
+        Map<String, Integer> categoryCounts = new LinkedHashMap<>();
+        for (com.example.models.Category value : com.example.models.Category.values()) {
+            categoryCounts.put(value.name(), 0);
         }
-        List<com.example.models.Category> categoryEnums = null;
-        if (categories != null && !categories.isEmpty()) {
-            categoryEnums = new java.util.ArrayList<>();
-            for (String cat : categories) {
-                categoryEnums.add(com.example.models.Category.valueOf(cat));
+        Map<String, Integer> locationCounts = new LinkedHashMap<>();
+        int total;
+
+        if ((search == null || search.trim().isEmpty()) && feedIndex.isReady()) {
+            Map<String, Long> idsByName = locationIdsByName();
+            FeedIndex.Facets facets = feedIndex.facets(new FeedIndex.Filter(itemType, categoryEnums,
+                resolveLocationIds(locations, idsByName), from, to));
+            facets.types().forEach((value, count) -> typeCounts.put(value.name(), count));
+            facets.categories().forEach((value, count) -> categoryCounts.put(value.name(), count));
+            idsByName.forEach((name, id) -> locationCounts.put(name, facets.locations().getOrDefault(id, 0)));
+            total = facets.total();
+        } else {
+            // One grouped query over search + dates; each dimension then drops its own filter when summing the cells
+            for (Location location : locationService.findAllLocations()) {
+                locationCounts.put(location.getNameEn(), 0);
+            }
+            total = 0;
+            List<Object[]> cells = itemRepository.countFeedCells(search != null ? search.trim() : "",
+                from != null ? from : FEED_MIN_DATE, to != null ? to : FEED_MAX_DATE);
+            for (Object[] cell : cells) {
+                com.example.models.ItemType cellType = (com.example.models.ItemType) cell[0];
+                com.example.models.Category cellCategory = (com.example.models.Category) cell[1];
+                String cellLocation = (String) cell[2];
+                int count = ((Number) cell[3]).intValue();
+
+                boolean typeMatches = itemType == null || itemType == cellType;
+                boolean categoryMatches = categoryEnums == null || categoryEnums.contains(cellCategory);
+                boolean locationMatches = locations == null || locations.isEmpty() || locations.contains(cellLocation);
+
+                if (cellType != null && categoryMatches && locationMatches) {
+                    typeCounts.merge(cellType.name(), count, Integer::sum);
+                }
+                if (cellCategory != null && typeMatches && locationMatches) {
+                    categoryCounts.merge(cellCategory.name(), count, Integer::sum);
+                }
+                if (cellLocation != null && typeMatches && categoryMatches) {
+                    locationCounts.merge(cellLocation, count, Integer::sum);
+                }
+                if (typeMatches && categoryMatches && locationMatches) {
+                    total += count;
+                }
             }
         }
-        List<String> locationNames = (locations != null && !locations.isEmpty()) ? locations : null;
-        String searchQuery = (search != null && !search.trim().isEmpty()) ? search.trim() : null;
-        String sortOrderParam = (sortOrder != null && !sortOrder.trim().isEmpty()) ? sortOrder.trim() : "desc";
-        return itemRepository.filterItems(itemType, categoryEnums, locationNames, searchQuery, sortOrderParam);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("types", typeCounts);
+        response.put("categories", categoryCounts);
+        response.put("locations", locationCounts);
+        response.put("total", total);
+        return response;
+    }
+
+    // Order- and case-insensitive key for a filter set, so equivalent requests share cache entries
+    private static String feedSignature(String type, List<String> categories, List<String> locations, String search,
+                                        String dateStart, String dateEnd) {
+        String normalizedType = (type == null || type.isEmpty() || type.equalsIgnoreCase("all")) ? "" : type.toLowerCase();
+        String normalizedSearch = search == null ? "" : search.trim().toLowerCase();
+        LocalDateTime from = parseFeedDate(dateStart, false);
+        LocalDateTime to = parseFeedDate(dateEnd, true);
+        return "t=" + normalizedType
+            + "|c=" + (categories == null ? "" : String.join(",", new TreeSet<>(categories)))
+            + "|l=" + (locations == null ? "" : String.join(",", new TreeSet<>(locations)))
+            + "|q=" + normalizedSearch
+            + "|from=" + (from == null ? "" : from)
+            + "|to=" + (to == null ? "" : to);
+    }
+
+    // Loads the items for ids answered by the feed index, keeping the index order
+    private List<Item> loadInOrder(List<Long> ids) {
+        Map<Long, Item> byId = new HashMap<>(ids.size() * 2);
+        for (int i = 0; i < ids.size(); i += FEED_LOAD_CHUNK) {
+            for (Item item : itemRepository.findFeedItemsByIds(ids.subList(i, Math.min(i + FEED_LOAD_CHUNK, ids.size())))) {
+                byId.put(item.getItem_id(), item);
+            }
+        }
+        List<Item> items = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Item item = byId.get(id);
+            if (item != null) {
+                items.add(item);
+            }
+        }
+        return items;
+    }
+
+    private Map<String, Long> locationIdsByName() {
+        Map<String, Long> idsByName = new LinkedHashMap<>();
+        for (Location location : locationService.findAllLocations()) {
+            idsByName.put(location.getNameEn(), location.getLocation_id());
+        }
+        return idsByName;
+    }
+
+    private static List<Long> resolveLocationIds(List<String> locations, Map<String, Long> idsByName) {
+        if (locations == null || locations.isEmpty()) {
+            return null;
+        }
+        List<Long> ids = new ArrayList<>();
+        for (String name : locations) {
+            // An unknown name matches nothing, same as the SQL IN clause
+            ids.add(idsByName.getOrDefault(name, -1L));
+        }
+        return ids;
+    }
+
+    private com.example.models.ItemType parseItemType(String type) {
+        if (type == null || type.isEmpty() || type.equalsIgnoreCase("all")) {
+            return null;
+        }
+        String enumType = type.substring(0, 1).toUpperCase() + type.substring(1).toLowerCase();
+        return com.example.models.ItemType.valueOf(enumType);
+    }
+
+    private List<com.example.models.Category> parseCategories(List<String> categories) {
+        if (categories == null || categories.isEmpty()) {
+            return null;
+        }
+        List<com.example.models.Category> categoryEnums = new ArrayList<>();
+        for (String cat : categories) {
+            categoryEnums.add(com.example.models.Category.valueOf(cat));
+        }
+        return categoryEnums;
+    }
+
+    private static boolean isAscending(String sortOrder) {
+        return sortOrder != null && sortOrder.trim().equalsIgnoreCase("asc");
+    }
+
+    // yyyy-MM-dd, start of day for the lower bound and end of day for the upper one; unparsable dates are ignored
+    private static LocalDateTime parseFeedDate(String date, boolean endOfDay) {
+        if (date == null || date.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            LocalDate day = LocalDate.parse(date.trim());
+            return endOfDay ? day.atTime(LocalTime.MAX) : day.atStartOfDay();
+        } catch (Exception e) {
+            return null;
+        }
     }
 }
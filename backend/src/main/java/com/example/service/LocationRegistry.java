@@ -0,0 +1,80 @@
+package com.example.service;
+
+import com.example.models.Location;
+import com.example.repository.LocationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * In-memory copy of the location table. The table is small reference data that only changes by hand,
+ * so it is read once and served from an immutable snapshot; a reload swaps in a new snapshot atomically
+ * and readers never see a half-built one. The Location entities inside are shared and must be treated as
+ * read-only.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationRegistry {
+
+    private final LocationRepository locationRepository;
+
+    private volatile Snapshot snapshot;
+
+    public record Snapshot(List<Location> all, Map<Long, Location> byId, Map<String, Location> byName,
+                           Map<String, Location> byNameEn, String etag) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        reload();
+    }
+
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Used before startup finished; load on demand
+            synchronized (this) {
+                current = snapshot;
+                if (current == null) {
+                    current = reload();
+                }
+            }
+        }
+        return current;
+    }
+
+    public synchronized Snapshot reload() {
+        List<Location> locations = locationRepository.findAll();
+        locations.sort(Comparator.comparing(Location::getLocation_id));
+
+        Map<Long, Location> byId = new HashMap<>();
+        Map<String, Location> byName = new HashMap<>();
+        Map<String, Location> byNameEn = new HashMap<>();
+        int hash = 1;
+        for (Location location : locations) {
+            byId.put(location.getLocation_id(), location);
+            if (location.getName() != null) {
+                byName.putIfAbsent(location.getName(), location);
+            }
+            if (location.getNameEn() != null) {
+                byNameEn.putIfAbsent(location.getNameEn(), location);
+            }
+            hash = 31 * hash + Objects.hash(location.getLocation_id(), location.getName(), location.getNameEn());
+        }
+
+        // The tag is derived from the content, so every instance and every restart agree on it
+        String etag = "\"locations-" + locations.size() + "-" + Integer.toHexString(hash) + "\"";
+        snapshot = new Snapshot(List.copyOf(locations), Map.copyOf(byId), Map.copyOf(byName), Map.copyOf(byNameEn), etag);
+        log.info("Location registry loaded with {} locations", locations.size());
+        return snapshot;
+    }
+}
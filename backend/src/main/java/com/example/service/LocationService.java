@@ -5,4 +5,6 @@ public interface LocationService {
     Location findLocationByName(String name);
     List<Location> findAllLocations();
     Location findLocationByNameEn(String nameEn);
+    String locationsETag();
+    int reloadLocations();
 }
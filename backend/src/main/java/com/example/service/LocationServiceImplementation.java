@@ -1,7 +1,6 @@
 package com.example.service;
 
 import com.example.models.Location;
-import com.example.repository.LocationRepository;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
@@ -16,24 +15,43 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class LocationServiceImplementation implements LocationService{
 
-    private final LocationRepository locationRepository;
+    private final LocationRegistry locationRegistry;
+    private final FeedVersion feedVersion;
 
 
     @Override
     public Location findLocationByName(String name) {
-
-        return locationRepository.findByName(name)
-                .orElseThrow(() -> new RuntimeException("Location not found: " + name));
+        Location location = name != null ? locationRegistry.snapshot().byName().get(name) : null;
+        if (location == null) {
+            throw new RuntimeException("Location not found: " + name);
+        }
+        return location;
     }
 
     @Override
     public List<Location> findAllLocations() {
-        return locationRepository.findAll();
+        return locationRegistry.snapshot().all();
     }
 
     @Override
     public Location findLocationByNameEn(String nameEn) {
-        return locationRepository.findByNameEn(nameEn)
-                .orElseThrow(() -> new RuntimeException("Location not found: " + nameEn));
+        Location location = nameEn != null ? locationRegistry.snapshot().byNameEn().get(nameEn) : null;
+        if (location == null) {
+            throw new RuntimeException("Location not found: " + nameEn);
+        }
+        return location;
+    }
+
+    @Override
+    public String locationsETag() {
+        return locationRegistry.snapshot().etag();
+    }
+
+    @Override
+    public int reloadLocations() {
+        int count = locationRegistry.reload().all().size();
+        // Feed cards embed the location name
+        feedVersion.bump();
+        return count;
     }
 }
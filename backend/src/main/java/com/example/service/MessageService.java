@@ -2,20 +2,15 @@ package com.example.service;
 
 import com.example.models.Messages;
 import com.example.models.User;
-import com.example.models.Item;
+import com.example.request.SendMessageRequest;
 
 import java.util.List;
+import java.util.Map;
 
 public interface MessageService {
     
-    // Send a new message
-    Messages sendMessage(User sender, User receiver, String messageText);
-    
-    // Send a new message with referenced item
-    Messages sendMessage(User sender, User receiver, String messageText, Item referencedItem);
-    
-    // Send a new message with referenced item and reply
-    Messages sendMessage(User sender, User receiver, String messageText, Item referencedItem, Messages replyToMessage);
+    // Send a new message (optionally about a post, replying to a message, with images) from the given user
+    Messages sendMessage(String senderEmail, SendMessageRequest request);
     
     // Get all messages between two users
     List<Messages> getMessagesBetweenUsers(User user1, User user2);
@@ -29,20 +24,23 @@ public interface MessageService {
     // Get conversations for a user excluding deleted messages
     List<Messages> getConversationsForUserExcludingDeleted(User user);
     
-    // Count unread messages from a specific sender to receiver
-    Long countUnreadMessages(User receiver, User sender);
+    // Unread counts for all of the user's conversations, keyed by partner id
+    Map<Long, Long> countUnreadByPartner(User receiver);
+    
+    // Mark the conversation read up to lastMessageId (single-row upsert of the read pointer)
+    void markMessagesAsRead(User receiver, User sender, Long lastMessageId);
     
-    // Count unread messages excluding deleted ones
-    Long countUnreadMessagesExcludingDeleted(User receiver, User sender);
+    // Read pointers of both users in one conversation, keyed by ConversationReadPointer.key(reader, partner)
+    Map<String, Long> getReadPointersBetween(User user1, User user2);
     
-    // Mark messages as read
-    void markMessagesAsRead(User receiver, User sender);
+    // Read pointers owned by the user or naming them as partner, same keys
+    Map<String, Long> getReadPointersInvolving(User user);
     
     // Get a message by ID
     Messages getMessageById(Long messageId);
     
     // Clear all messages between two users (soft delete - only for current user)
-    void clearMessagesBetweenUsers(User currentUser, User otherUser);
+    int clearMessagesBetweenUsers(User currentUser, User otherUser);
     
     // Delete a specific message by ID (hard delete - removes from both sides)
     void deleteMessage(Long messageId, User currentUser);
@@ -1,16 +1,25 @@
 package com.example.service;
 
+import com.example.event.MessageSentEvent;
+import com.example.exception.NotFoundException;
+import com.example.exception.SenderNotFoundException;
+import com.example.exception.UserBlockedException;
+import com.example.models.ConversationReadPointer;
 import com.example.models.Messages;
-import com.example.models.User;
-import com.example.models.Item;
 import com.example.models.MessageImage;
+import com.example.models.StoredImage;
+import com.example.models.User;
 import com.example.models.UserReport;
+import com.example.projection.SendMessagePreflight;
+import com.example.repository.ConversationReadPointerRepository;
+import com.example.repository.ItemRepository;
 import com.example.repository.MessageRepository;
 import com.example.repository.MessageImageRepository;
 import com.example.repository.UserReportRepository;
-import com.example.service.EmailService;
-import com.example.service.UserService;
+import com.example.repository.UserRepository;
+import com.example.request.SendMessageRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,6 +28,8 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 @Service
 public class MessageServiceImplementation implements MessageService {
@@ -33,102 +44,95 @@ public class MessageServiceImplementation implements MessageService {
     private UserReportRepository userReportRepository;
     
     @Autowired
-    private EmailService emailService;
+    private UserRepository userRepository;
     
     @Autowired
-    private UserService userService;
+    private ItemRepository itemRepository;
     
-    @Override
-    public Messages sendMessage(User sender, User receiver, String messageText) {
-        return sendMessage(sender, receiver, messageText, null, null);
-    }
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
     
-    @Override
-    public Messages sendMessage(User sender, User receiver, String messageText, Item referencedItem) {
-        return sendMessage(sender, receiver, messageText, referencedItem, null);
-    }
+    @Autowired
+    private ConversationReadPointerRepository readPointerRepository;
+    
+    @Autowired
+    private ImageStore imageStore;
     
     @Override
-    public Messages sendMessage(User sender, User receiver, String messageText, Item referencedItem, Messages replyToMessage) {
-        // Check if either user has blocked the other
-        try {
-            System.out.println("=== BLOCK CHECK DEBUG ===");
-            System.out.println("Sender ID: " + sender.getUser_id() + " (" + sender.getNickname() + ")");
-            System.out.println("Receiver ID: " + receiver.getUser_id() + " (" + receiver.getNickname() + ")");
-            
-            boolean senderBlockedReceiver = userService.isUserBlocked(sender.getUser_id(), receiver.getUser_id());
-            boolean receiverBlockedSender = userService.isUserBlocked(receiver.getUser_id(), sender.getUser_id());
-            
-            System.out.println("Sender blocked receiver: " + senderBlockedReceiver);
-            System.out.println("Receiver blocked sender: " + receiverBlockedSender);
-            
-            if (senderBlockedReceiver || receiverBlockedSender) {
-                System.out.println("BLOCKING MESSAGE - users have blocked each other");
-                throw new RuntimeException("Cannot send message - users have blocked each other");
-            }
-            
-            System.out.println("Block check passed - allowing message");
-        } catch (RuntimeException e) {
-            if (e.getMessage().contains("Cannot send message")) {
-                throw e; // Re-throw block exceptions
-            }
-            System.err.println("Error checking block status: " + e.getMessage());
-            // Continue with message sending if block check fails
-        } catch (Exception e) {
-            System.err.println("Error checking block status: " + e.getMessage());
-            // Continue with message sending if block check fails
+    @Transactional
+    public Messages sendMessage(String senderEmail, SendMessageRequest request) {
+        // One query checks sender, receiver, blocks in either direction, the referenced item and the replied-to message.
+        // Absent optional ids are passed as -1 so the query never binds a null
+        SendMessagePreflight preflight = messageRepository.preflightSend(
+            senderEmail,
+            request.getReceiverId() != null ? request.getReceiverId() : -1L,
+            request.getReferencedItemId() != null ? request.getReferencedItemId() : -1L,
+            request.getReplyToMessageId() != null ? request.getReplyToMessageId() : -1L);
+        
+        if (preflight == null || preflight.getSenderId() == null) {
+            throw new SenderNotFoundException("Sender not found");
+        }
+        if (preflight.getReceiverId() == null) {
+            throw new NotFoundException("Receiver not found");
+        }
+        if (Boolean.TRUE.equals(preflight.getBlocked())) {
+            throw new UserBlockedException("Cannot send message - users have blocked each other");
         }
+        if (request.getReplyToMessageId() != null && preflight.getReplyId() == null) {
+            throw new NotFoundException("Reply to message not found");
+        }
+        // A missing or deleted referenced item is dropped rather than failing the send
         
+        // Reference proxies: the insert only needs the foreign keys, nothing is loaded
         Messages message = new Messages();
-        message.setSender(sender);
-        message.setReceiver(receiver);
-        message.setMessageText(messageText);
+        message.setSender(userRepository.getReferenceById(preflight.getSenderId()));
+        message.setReceiver(userRepository.getReferenceById(preflight.getReceiverId()));
+        message.setMessageText(request.getMessageText());
         message.setIsRead(false);
-        message.setReferencedItem(referencedItem);
-        message.setReplyToMessage(replyToMessage);
-        
+        if (preflight.getItemId() != null) {
+            message.setReferencedItem(itemRepository.getReferenceById(preflight.getItemId()));
+        }
+        if (preflight.getReplyId() != null) {
+            message.setReplyToMessage(messageRepository.getReferenceById(preflight.getReplyId()));
+        }
         Messages savedMessage = messageRepository.save(message);
         
-        // Send email notification if this is about a post and receiver has notifications enabled
-        System.out.println("=== EMAIL NOTIFICATION DEBUG ===");
-        System.out.println("referencedItem: " + (referencedItem != null ? referencedItem.getTitle() : "null"));
-        System.out.println("receiver.getPostNotifications(): " + (receiver.getPostNotifications()));
-        System.out.println("receiver.getUniMail(): " + receiver.getUniMail());
-        System.out.println("sender.getNickname(): " + sender.getNickname());
-        
-        if (referencedItem != null && receiver.getPostNotifications() != null && receiver.getPostNotifications()) {
-            try {
-                System.out.println("Attempting to send post message notification email...");
-                emailService.sendPostMessageNotification(
-                    receiver.getUniMail(), 
-                    sender.getNickname(), 
-                    referencedItem.getTitle(), 
-                    messageText
-                );
-                System.out.println("✅ Post message notification email sent successfully to: " + receiver.getUniMail());
-            } catch (Exception e) {
-                System.err.println("❌ Failed to send post message notification email: " + e.getMessage());
-                e.printStackTrace();
-                // Don't fail the message sending if email fails
+        // Identical content is stored once and shared by reference: one upsert for all images,
+        // then the image rows go out as one JDBC batch
+        if (request.getImageBase64List() != null && !request.getImageBase64List().isEmpty()) {
+            List<StoredImage> stored = imageStore.acquireAll(request.getImageBase64List());
+            List<MessageImage> images = new ArrayList<>();
+            for (StoredImage storedImage : stored) {
+                MessageImage img = new MessageImage();
+                img.setMessage(savedMessage);
+                img.setStoredImage(storedImage);
+                images.add(img);
             }
-        } else {
-            System.out.println("❌ Email notification not sent. Reasons:");
-            if (referencedItem == null) System.out.println("  - No referenced item (not about a post)");
-            if (receiver.getPostNotifications() == null || !receiver.getPostNotifications()) System.out.println("  - User has post notifications disabled");
+            messageImageRepository.saveAll(images);
         }
         
+        // Stats and email notification run after commit, off the request thread
+        eventPublisher.publishEvent(new MessageSentEvent(
+            savedMessage.getMessageId(),
+            preflight.getSenderId(),
+            preflight.getReceiverId(),
+            preflight.getItemId(),
+            request.getMessageText()));
+        
         return savedMessage;
     }
     
     @Override
     public List<Messages> getMessagesBetweenUsers(User user1, User user2) {
-        return messageRepository.findMessagesBetweenUsers(user1, user2);
+        return messageRepository.findMessagesBetweenUsers(
+            Messages.conversationKey(user1.getUser_id(), user2.getUser_id()));
     }
     
     @Override
     public List<Messages> getMessagesBetweenUsersExcludingDeleted(User user1, User user2, User currentUser) {
         // Use the new method that considers the new delete flags
-        return messageRepository.findMessagesBetweenUsersExcludingDeletedForUser(user1, user2, currentUser);
+        return messageRepository.findMessagesBetweenUsersExcludingDeletedForUser(
+            Messages.conversationKey(user1.getUser_id(), user2.getUser_id()), currentUser);
     }
     
     @Override
@@ -139,42 +143,9 @@ public class MessageServiceImplementation implements MessageService {
     @Override
     public List<Messages> getConversationsForUserExcludingDeleted(User user) {
         try {
-            List<Messages> allMessages = messageRepository.findLatestConversationsExcludingDeleted(user);
-            
-            if (allMessages == null || allMessages.isEmpty()) {
-                return new ArrayList<>();
-            }
-            
-            // Group messages by conversation partner and get the latest message for each
-            Map<Long, Messages> latestMessagesMap = new HashMap<>();
-            
-            for (Messages message : allMessages) {
-                if (message == null) continue;
-                
-                if (message.getSender() == null || message.getReceiver() == null) {
-                    System.out.println("WARNING: Message with null sender or receiver, skipping message ID: " + message.getMessageId());
-                    continue;
-                }
-                
-                Long otherUserId = message.getSender().getUser_id().equals(user.getUser_id()) 
-                    ? message.getReceiver().getUser_id() 
-                    : message.getSender().getUser_id();
-                
-                if (otherUserId == null) {
-                    System.out.println("WARNING: Could not determine other user ID for message: " + message.getMessageId());
-                    continue;
-                }
-                
-                // Block kontrolü kaldırıldı - mesajlar görünmeli, sadece yeni mesaj atılamamalı
-                
-                if (!latestMessagesMap.containsKey(otherUserId) || 
-                    (message.getSentAt() != null && latestMessagesMap.get(otherUserId).getSentAt() != null &&
-                     message.getSentAt().isAfter(latestMessagesMap.get(otherUserId).getSentAt()))) {
-                    latestMessagesMap.put(otherUserId, message);
-                }
-            }
-            
-            return new ArrayList<>(latestMessagesMap.values());
+            // The database picks the latest message per conversation (MAX(message_id) grouped by conversation_key)
+            // Block kontrolü kaldırıldı - mesajlar görünmeli, sadece yeni mesaj atılamamalı
+            return messageRepository.findLatestConversationsExcludingDeleted(user);
         } catch (Exception e) {
             System.out.println("Error in getConversationsForUserExcludingDeleted: " + e.getMessage());
             e.printStackTrace();
@@ -183,19 +154,39 @@ public class MessageServiceImplementation implements MessageService {
     }
     
     @Override
-    public Long countUnreadMessages(User receiver, User sender) {
-        return messageRepository.countUnreadMessages(receiver, sender);
+    public Map<Long, Long> countUnreadByPartner(User receiver) {
+        Map<Long, Long> unreadByPartner = new HashMap<>();
+        for (Object[] row : messageRepository.countUnreadBySender(receiver.getUser_id())) {
+            unreadByPartner.put(((Number) row[0]).longValue(), ((Number) row[1]).longValue());
+        }
+        return unreadByPartner;
     }
     
     @Override
-    public Long countUnreadMessagesExcludingDeleted(User receiver, User sender) {
-        return messageRepository.countUnreadMessagesExcludingDeleted(receiver, sender);
+    @Transactional
+    public void markMessagesAsRead(User receiver, User sender, Long lastMessageId) {
+        if (lastMessageId == null) {
+            return;
+        }
+        readPointerRepository.markReadUpTo(receiver.getUser_id(), sender.getUser_id(), lastMessageId);
     }
     
     @Override
-    @Transactional
-    public void markMessagesAsRead(User receiver, User sender) {
-        messageRepository.markMessagesAsRead(receiver, sender);
+    public Map<String, Long> getReadPointersBetween(User user1, User user2) {
+        return toPointerMap(readPointerRepository.findBetween(user1.getUser_id(), user2.getUser_id()));
+    }
+    
+    @Override
+    public Map<String, Long> getReadPointersInvolving(User user) {
+        return toPointerMap(readPointerRepository.findInvolving(user.getUser_id()));
+    }
+    
+    private Map<String, Long> toPointerMap(List<ConversationReadPointer> pointers) {
+        Map<String, Long> pointerMap = new HashMap<>();
+        for (ConversationReadPointer pointer : pointers) {
+            pointerMap.put(ConversationReadPointer.key(pointer.getUserId(), pointer.getPartnerId()), pointer.getLastReadMessageId());
+        }
+        return pointerMap;
     }
     
     @Override
@@ -206,33 +197,14 @@ public class MessageServiceImplementation implements MessageService {
     
     @Override
     @Transactional
-    public void clearMessagesBetweenUsers(User currentUser, User otherUser) {
-        // Get all messages between the two users
-        List<Messages> messages = messageRepository.findMessagesBetweenUsers(currentUser, otherUser);
-        
-        // Mark each message as deleted for the current user using new flag system
-        for (Messages message : messages) {
-            boolean isAlreadyDeleted = false;
-            
-            // Check if current user is sender or receiver and if already deleted
-            if (message.getSender().getUser_id().equals(currentUser.getUser_id())) {
-                isAlreadyDeleted = message.getDeletedForSender();
-                if (!isAlreadyDeleted) {
-                    message.setDeletedForSender(true);
-                    message.setDeletedAt(java.time.LocalDateTime.now());
-                }
-            } else if (message.getReceiver().getUser_id().equals(currentUser.getUser_id())) {
-                isAlreadyDeleted = message.getDeletedForReceiver();
-                if (!isAlreadyDeleted) {
-                    message.setDeletedForReceiver(true);
-                    message.setDeletedAt(java.time.LocalDateTime.now());
-                }
-            }
-            
-            if (!isAlreadyDeleted) {
-                messageRepository.save(message);
-            }
-        }
+    public int clearMessagesBetweenUsers(User currentUser, User otherUser) {
+        // Mark the conversation as deleted for the current user, one statement per side,
+        // touching only rows that are not already deleted for them
+        java.time.LocalDateTime now = java.time.LocalDateTime.now();
+        String conversationKey = Messages.conversationKey(currentUser.getUser_id(), otherUser.getUser_id());
+        int cleared = messageRepository.clearSentMessages(conversationKey, currentUser, now);
+        cleared += messageRepository.clearReceivedMessages(conversationKey, currentUser, now);
+        return cleared;
     }
     
     @Override
@@ -315,23 +287,18 @@ public class MessageServiceImplementation implements MessageService {
     
     private void deleteRepliesForSelf(Long messageId, User currentUser) {
         try {
-            // Find all replies to this message
-            List<Messages> replies = messageRepository.findRepliesByMessageId(messageId);
-            
-            // Mark all replies as deleted for current user
-            for (Messages reply : replies) {
-                if (reply.getSender().getUser_id().equals(currentUser.getUser_id())) {
-                    reply.setDeletedForSender(true);
-                } else {
-                    reply.setDeletedForReceiver(true);
-                }
-                reply.setDeletedAt(java.time.LocalDateTime.now());
-                messageRepository.save(reply);
-                
-                // Recursively delete nested replies
-                deleteRepliesForSelf(reply.getMessageId(), currentUser);
+            // Every reply below this message, at any depth
+            List<Long> replyIds = new ArrayList<>(messageRepository.findThreadMessageIds(messageId));
+            replyIds.remove(messageId);
+            if (replyIds.isEmpty()) {
+                return;
             }
             
+            // Mark all replies as deleted for current user - one statement per side
+            java.time.LocalDateTime now = java.time.LocalDateTime.now();
+            messageRepository.markDeletedForSender(replyIds, currentUser.getUser_id(), now);
+            messageRepository.markDeletedForReceiver(replyIds, currentUser.getUser_id(), now);
+            
         } catch (Exception e) {
             System.out.println("Error in deleteRepliesForSelf for message ID " + messageId + ": " + e.getMessage());
             throw e;
@@ -340,58 +307,53 @@ public class MessageServiceImplementation implements MessageService {
 
     private void deleteMessageWithReplies(Long messageId) {
         try {
-            // Find all replies to this message
-            List<Messages> replies = messageRepository.findRepliesByMessageId(messageId);
+            // The message and its whole reply tree in one recursive query
+            List<Long> threadIds = messageRepository.findThreadMessageIds(messageId);
+            if (threadIds.isEmpty()) {
+                return;
+            }
+            
+            // Reported messages are soft deleted for admin visibility, the rest are hard deleted
+            Set<Long> reportedIds = findReportedMessageIds(threadIds);
+            List<Long> hardDeleteIds = new ArrayList<>();
+            for (Long id : threadIds) {
+                if (!reportedIds.contains(id)) {
+                    hardDeleteIds.add(id);
+                }
+            }
             
-            // Recursively soft-delete all replies first
-            for (Messages reply : replies) {
-                deleteMessageWithReplies(reply.getMessageId());
+            if (!reportedIds.isEmpty()) {
+                messageRepository.markDeletedCompletely(reportedIds, java.time.LocalDateTime.now());
             }
             
-            // Now handle the original message
-            Messages message = messageRepository.findById(messageId).orElse(null);
-            if (message != null) {
-                // Check if this message is reported - if so, use soft delete
-                boolean isReported = isMessageReported(messageId);
-                
-                if (isReported) {
-                    System.out.println("Message " + messageId + " is reported - using soft delete for admin visibility");
-                    // Soft delete: Mark as deleted completely but keep in database
-                    message.setIsDeletedCompletely(true);
-                    message.setDeletedForSender(true);
-                    message.setDeletedForReceiver(true);
-                    message.setDeletedAt(java.time.LocalDateTime.now());
-                    messageRepository.save(message);
-                } else {
-                    System.out.println("Message " + messageId + " is not reported - using hard delete");
-                    // Delete any related message images
-                    List<MessageImage> images = messageImageRepository.findByMessage(message);
-                    for (MessageImage img : images) {
-                        messageImageRepository.delete(img);
-                    }
-                    
-                    // Hard delete the message
-                    messageRepository.delete(message);
+            if (!hardDeleteIds.isEmpty()) {
+                // Kept (reported) replies must not point at rows that are about to disappear
+                if (!reportedIds.isEmpty()) {
+                    messageRepository.detachRepliesFrom(reportedIds, hardDeleteIds);
                 }
-                
-                System.out.println("Processed message ID: " + messageId + " (reported: " + isReported + ")");
+                // The images are shared by content, so the messages only give up their references;
+                // ImageStore reclaims what nothing uses any more
+                imageStore.release(messageImageRepository.findImageHashesByMessageIds(hardDeleteIds));
+                messageImageRepository.deleteByMessageIds(hardDeleteIds);
+                messageRepository.deleteByMessageIds(hardDeleteIds);
             }
             
+            System.out.println("Processed " + threadIds.size() + " messages under ID " + messageId
+                + " (soft deleted: " + reportedIds.size() + ", hard deleted: " + hardDeleteIds.size() + ")");
+            
         } catch (Exception e) {
             System.out.println("Error in deleteMessageWithReplies for message ID " + messageId + ": " + e.getMessage());
             throw e;
         }
     }
     
-    private boolean isMessageReported(Long messageId) {
+    private Set<Long> findReportedMessageIds(List<Long> messageIds) {
         try {
-            // Use the efficient repository method to check if message is reported
-            boolean isReported = userReportRepository.existsByReportedMessageId(messageId);
-            System.out.println("Message " + messageId + " reported status: " + isReported);
-            return isReported;
+            // Use the indexed batch lookup instead of checking each message separately
+            return new HashSet<>(userReportRepository.findReportedMessageIdsIn(messageIds));
         } catch (Exception e) {
-            System.out.println("Error checking if message is reported: " + e.getMessage());
-            return false;
+            System.out.println("Error checking if messages are reported: " + e.getMessage());
+            return new HashSet<>();
         }
     }
 } 
\ No newline at end of file
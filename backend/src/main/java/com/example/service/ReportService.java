@@ -0,0 +1,23 @@
+package com.example.service;
+
+import com.example.models.User;
+import com.example.request.BulkReportStatusRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public interface ReportService {
+
+    // Post and user reports merged newest first, optionally filtered by status (comma separated)
+    List<Map<String, Object>> getAllReports(String status) throws Exception;
+
+    // The same merged list handed to the sink row by row, read one keyset page at a time
+    void streamAllReports(String status, Consumer<Map<String, Object>> sink) throws Exception;
+
+    // One keyset page of the merged queue: { items, nextCursor, hasMore }
+    Map<String, Object> getReportQueue(String cursor, int size, String status) throws Exception;
+
+    // Move many post/user reports to one status; returns the number of reports updated
+    int bulkUpdateStatus(BulkReportStatusRequest request, User admin) throws Exception;
+}
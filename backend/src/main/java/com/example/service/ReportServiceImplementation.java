@@ -0,0 +1,250 @@
+package com.example.service;
+
+import com.example.models.Report;
+import com.example.models.User;
+import com.example.models.UserReport;
+import com.example.projection.ReportedMessageSummary;
+import com.example.repository.MessageRepository;
+import com.example.repository.ReportRepository;
+import com.example.repository.UserReportRepository;
+import com.example.request.BulkReportStatusRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReportServiceImplementation implements ReportService {
+
+    private static final String POST = "post";
+    private static final String USER = "user";
+    private static final int STREAM_PAGE_SIZE = 200;
+
+    // Queue order: createdAt desc, then kind desc ("user" before "post"), then id desc
+    private static final Comparator<Map<String, Object>> QUEUE_ORDER =
+            Comparator.<Map<String, Object>, LocalDateTime>comparing(row -> (LocalDateTime) row.get("sortCreatedAt"))
+                    .thenComparing(row -> (String) row.get("type"))
+                    .thenComparing(row -> (Long) row.get("id"))
+                    .reversed();
+
+    private final ReportRepository reportRepository;
+    private final UserReportRepository userReportRepository;
+    private final MessageRepository messageRepository;
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> getAllReports(String status) throws Exception {
+        List<Report> reports = reportRepository.findQueuePage(parsePostStatuses(status), Pageable.unpaged());
+        List<UserReport> userReports = userReportRepository.findQueuePage(parseUserStatuses(status), Pageable.unpaged());
+        List<Map<String, Object>> rows = toRows(reports, userReports);
+        rows.sort(QUEUE_ORDER);
+        rows.forEach(row -> row.remove("sortCreatedAt"));
+        return rows;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void streamAllReports(String status, Consumer<Map<String, Object>> sink) throws Exception {
+        // Deliberately not one transaction: each page's entities are released before the next one is read
+        String cursor = null;
+        do {
+            Map<String, Object> page = getReportQueue(cursor, STREAM_PAGE_SIZE, status);
+            ((List<Map<String, Object>>) page.get("items")).forEach(sink);
+            cursor = (String) page.get("nextCursor");
+        } while (cursor != null);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<String, Object> getReportQueue(String cursor, int size, String status) throws Exception {
+        Set<Report.ReportStatus> postStatuses = parsePostStatuses(status);
+        Set<UserReport.ReportStatus> userStatuses = parseUserStatuses(status);
+        // One extra row per source tells us whether another page exists
+        Pageable limit = PageRequest.of(0, size + 1);
+
+        List<Report> reports;
+        List<UserReport> userReports;
+        if (cursor == null || cursor.isEmpty()) {
+            reports = reportRepository.findQueuePage(postStatuses, limit);
+            userReports = userReportRepository.findQueuePage(userStatuses, limit);
+        } else {
+            // Cursor format: <createdAt>_<type>_<id> of the last row of the previous page
+            String[] parts = cursor.split("_");
+            if (parts.length != 3 || !(parts[1].equals(POST) || parts[1].equals(USER))) {
+                throw new Exception("Invalid cursor: " + cursor);
+            }
+            LocalDateTime createdAt = LocalDateTime.parse(parts[0]);
+            Long id = Long.valueOf(parts[2]);
+            // At the same createdAt user reports sort before post reports
+            Long postIdBound = parts[1].equals(POST) ? id : Long.MAX_VALUE;
+            Long userIdBound = parts[1].equals(USER) ? id : Long.MIN_VALUE;
+            reports = reportRepository.findQueuePageAfter(postStatuses, createdAt, postIdBound, limit);
+            userReports = userReportRepository.findQueuePageAfter(userStatuses, createdAt, userIdBound, limit);
+        }
+
+        List<Map<String, Object>> rows = toRows(reports, userReports);
+        rows.sort(QUEUE_ORDER);
+        boolean hasMore = rows.size() > size;
+        List<Map<String, Object>> page = new ArrayList<>(rows.subList(0, Math.min(size, rows.size())));
+
+        String nextCursor = null;
+        if (hasMore && !page.isEmpty()) {
+            Map<String, Object> last = page.get(page.size() - 1);
+            nextCursor = last.get("sortCreatedAt") + "_" + last.get("type") + "_" + last.get("id");
+        }
+        page.forEach(row -> row.remove("sortCreatedAt"));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("items", page);
+        response.put("nextCursor", nextCursor);
+        response.put("hasMore", hasMore);
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public int bulkUpdateStatus(BulkReportStatusRequest request, User admin) throws Exception {
+        if (request.getStatus() == null || request.getStatus().isEmpty()) {
+            throw new Exception("Status is required");
+        }
+        String statusName = request.getStatus().trim().toUpperCase();
+        LocalDateTime now = LocalDateTime.now();
+        int updated = 0;
+        // One UPDATE per table, however many ids were sent
+        if (request.getPostReportIds() != null && !request.getPostReportIds().isEmpty()) {
+            updated += reportRepository.updateStatusByIds(request.getPostReportIds(),
+                    Report.ReportStatus.valueOf(statusName), admin, now);
+        }
+        if (request.getUserReportIds() != null && !request.getUserReportIds().isEmpty()) {
+            updated += userReportRepository.updateStatusByIds(request.getUserReportIds(),
+                    UserReport.ReportStatus.valueOf(statusName), admin, now);
+        }
+        return updated;
+    }
+
+    private List<Map<String, Object>> toRows(List<Report> reports, List<UserReport> userReports) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Report report : reports) {
+            rows.add(toRow(report));
+        }
+
+        // Reported messages of every user report are loaded with two queries, whatever the page size
+        Map<Long, List<Long>> messageIdsByReport = new HashMap<>();
+        Map<Long, ReportedMessageSummary> messagesById = new HashMap<>();
+        if (!userReports.isEmpty()) {
+            List<Long> reportIds = userReports.stream().map(UserReport::getId).toList();
+            for (Object[] pair : userReportRepository.findReportedMessageIdsByReportIds(reportIds)) {
+                messageIdsByReport.computeIfAbsent((Long) pair[0], k -> new ArrayList<>()).add((Long) pair[1]);
+            }
+            List<Long> messageIds = messageIdsByReport.values().stream().flatMap(List::stream).distinct().toList();
+            if (!messageIds.isEmpty()) {
+                for (ReportedMessageSummary summary : messageRepository.findSummariesByMessageIdIn(messageIds)) {
+                    messagesById.put(summary.getId(), summary);
+                }
+            }
+        }
+        for (UserReport report : userReports) {
+            rows.add(toRow(report, messageIdsByReport.get(report.getId()), messagesById));
+        }
+        return rows;
+    }
+
+    private Map<String, Object> toRow(Report report) {
+        Map<String, Object> reportMap = new HashMap<>();
+        reportMap.put("id", report.getId());
+        reportMap.put("type", POST);
+        reportMap.put("postId", report.getPost().getItem_id());
+        reportMap.put("postTitle", report.getPost().getTitle());
+        reportMap.put("postType", report.getPost().getType().toString());
+        reportMap.put("reporterId", report.getReporter().getUser_id());
+        reportMap.put("reporterName", report.getReporter().getNickname());
+        reportMap.put("reporterEmail", report.getReporter().getUniMail());
+        reportMap.put("reason", report.getReason());
+        reportMap.put("description", report.getDescription());
+        reportMap.put("status", report.getStatus().toString());
+        reportMap.put("createdAt", report.getCreatedAt().toString());
+        reportMap.put("sortCreatedAt", report.getCreatedAt());
+        if (report.getReviewedAt() != null) {
+            reportMap.put("reviewedAt", report.getReviewedAt().toString());
+        }
+        if (report.getReviewedBy() != null) {
+            reportMap.put("reviewedBy", report.getReviewedBy().getNickname());
+        }
+        return reportMap;
+    }
+
+    private Map<String, Object> toRow(UserReport report, List<Long> messageIds, Map<Long, ReportedMessageSummary> messagesById) {
+        Map<String, Object> reportMap = new HashMap<>();
+        reportMap.put("id", report.getId());
+        reportMap.put("type", USER);
+        reportMap.put("userId", report.getUser().getUser_id());
+        reportMap.put("userNickname", report.getUser().getNickname());
+        reportMap.put("userEmail", report.getUser().getUniMail());
+        reportMap.put("reporterId", report.getReporter().getUser_id());
+        reportMap.put("reporterName", report.getReporter().getNickname());
+        reportMap.put("reporterEmail", report.getReporter().getUniMail());
+        reportMap.put("reason", report.getReason());
+        reportMap.put("description", report.getDescription());
+        reportMap.put("status", report.getStatus().toString());
+        reportMap.put("createdAt", report.getCreatedAt().toString());
+        reportMap.put("sortCreatedAt", report.getCreatedAt());
+        if (report.getReviewedAt() != null) {
+            reportMap.put("reviewedAt", report.getReviewedAt().toString());
+        }
+        if (report.getReviewedBy() != null) {
+            reportMap.put("reviewedBy", report.getReviewedBy().getNickname());
+        }
+        if (messageIds != null && !messageIds.isEmpty()) {
+            List<Map<String, Object>> messageSummaries = new ArrayList<>();
+            for (Long messageId : messageIds) {
+                ReportedMessageSummary msg = messagesById.get(messageId);
+                if (msg == null) {
+                    continue; // message was hard deleted after the report
+                }
+                Map<String, Object> msgMap = new HashMap<>();
+                msgMap.put("id", msg.getId());
+                msgMap.put("senderId", msg.getSenderId());
+                msgMap.put("receiverId", msg.getReceiverId());
+                msgMap.put("content", msg.getContent());
+                msgMap.put("sentAt", msg.getSentAt());
+                messageSummaries.add(msgMap);
+            }
+            reportMap.put("reportedMessages", messageSummaries);
+        }
+        return reportMap;
+    }
+
+    private Set<Report.ReportStatus> parsePostStatuses(String status) {
+        if (status == null || status.isEmpty()) {
+            return EnumSet.allOf(Report.ReportStatus.class);
+        }
+        Set<Report.ReportStatus> statuses = EnumSet.noneOf(Report.ReportStatus.class);
+        Arrays.stream(status.split(",")).forEach(s -> statuses.add(Report.ReportStatus.valueOf(s.trim().toUpperCase())));
+        return statuses;
+    }
+
+    private Set<UserReport.ReportStatus> parseUserStatuses(String status) {
+        if (status == null || status.isEmpty()) {
+            return EnumSet.allOf(UserReport.ReportStatus.class);
+        }
+        Set<UserReport.ReportStatus> statuses = EnumSet.noneOf(UserReport.ReportStatus.class);
+        Arrays.stream(status.split(",")).forEach(s -> statuses.add(UserReport.ReportStatus.valueOf(s.trim().toUpperCase())));
+        return statuses;
+    }
+}
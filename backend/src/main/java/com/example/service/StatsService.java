@@ -0,0 +1,19 @@
+package com.example.service;
+
+import com.example.models.Item;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface StatsService {
+
+    // Rollup maintenance - called from the write paths, never fails the caller
+    void recordItemCreated(Item item);
+    void recordItemDeleted(Item item);
+    void recordMessageSent();
+    void recordPostReport();
+    void recordUserReport();
+
+    // Daily series between from and to (inclusive), posts grouped by "type", "category" or "location"
+    Map<String, Object> getTimeseries(LocalDate from, LocalDate to, String groupBy) throws Exception;
+}
@@ -0,0 +1,147 @@
+package com.example.service;
+
+import com.example.models.DailyActivityStat;
+import com.example.models.Item;
+import com.example.models.Location;
+import com.example.repository.DailyActivityStatRepository;
+import com.example.repository.DailyItemStatRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StatsServiceImplementation implements StatsService {
+
+    private static final int MAX_RANGE_DAYS = 366;
+
+    private final DailyItemStatRepository dailyItemStatRepository;
+    private final DailyActivityStatRepository dailyActivityStatRepository;
+    private final LocationService locationService;
+
+    @Override
+    public void recordItemCreated(Item item) {
+        LocalDate day = item.getDateShared() != null ? item.getDateShared().toLocalDate() : LocalDate.now();
+        incrementItemBucket(day, item, 1, 0);
+    }
+
+    @Override
+    public void recordItemDeleted(Item item) {
+        // Deletions are counted on the day they happen, under the post's own dimensions
+        incrementItemBucket(LocalDate.now(), item, 0, 1);
+    }
+
+    @Override
+    public void recordMessageSent() {
+        incrementActivity(1, 0, 0);
+    }
+
+    @Override
+    public void recordPostReport() {
+        incrementActivity(0, 1, 0);
+    }
+
+    @Override
+    public void recordUserReport() {
+        incrementActivity(0, 0, 1);
+    }
+
+    @Override
+    public Map<String, Object> getTimeseries(LocalDate from, LocalDate to, String groupBy) throws Exception {
+        if (from.isAfter(to)) {
+            throw new Exception("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new Exception("Range cannot be longer than " + MAX_RANGE_DAYS + " days");
+        }
+
+        List<Object[]> rows;
+        String grouping = groupBy != null ? groupBy.toLowerCase() : "type";
+        switch (grouping) {
+            case "type":
+                rows = dailyItemStatRepository.sumByDayAndType(from, to);
+                break;
+            case "category":
+                rows = dailyItemStatRepository.sumByDayAndCategory(from, to);
+                break;
+            case "location":
+                rows = dailyItemStatRepository.sumByDayAndLocation(from, to);
+                break;
+            default:
+                throw new Exception("Invalid groupBy: " + groupBy);
+        }
+
+        Map<Long, String> locationNames = new HashMap<>();
+        if (grouping.equals("location")) {
+            for (Location location : locationService.findAllLocations()) {
+                locationNames.put(location.getLocation_id(), location.getNameEn());
+            }
+        }
+
+        List<Map<String, Object>> posts = new ArrayList<>();
+        for (Object[] row : rows) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", row[0].toString());
+            if (grouping.equals("location")) {
+                point.put("key", locationNames.getOrDefault((Long) row[1], "Unknown"));
+            } else {
+                point.put("key", row[1].toString());
+            }
+            point.put("created", row[2]);
+            point.put("deleted", row[3]);
+            posts.add(point);
+        }
+
+        // Activity is dense (one entry per day, zero-filled) so charts don't need to fill gaps
+        Map<LocalDate, DailyActivityStat> activityByDay = new HashMap<>();
+        for (DailyActivityStat stat : dailyActivityStatRepository.findByStatDateBetweenOrderByStatDate(from, to)) {
+            activityByDay.put(stat.getStatDate(), stat);
+        }
+        List<Map<String, Object>> activity = new ArrayList<>();
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            DailyActivityStat stat = activityByDay.get(day);
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("date", day.toString());
+            point.put("messages", stat != null ? stat.getMessagesSent() : 0L);
+            point.put("postReports", stat != null ? stat.getPostReports() : 0L);
+            point.put("userReports", stat != null ? stat.getUserReports() : 0L);
+            activity.add(point);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("from", from.toString());
+        response.put("to", to.toString());
+        response.put("groupBy", grouping);
+        response.put("posts", posts);
+        response.put("activity", activity);
+        return response;
+    }
+
+    private void incrementItemBucket(LocalDate day, Item item, long created, long deleted) {
+        try {
+            Long locationId = item.getLocation() != null ? item.getLocation().getLocation_id() : 0L;
+            dailyItemStatRepository.increment(day, item.getType().name(), item.getCategory().name(),
+                    locationId, created, deleted);
+        } catch (Exception e) {
+            // Rollups are best effort - a failed increment must not fail the post itself
+            log.error("Failed to update item rollup for item " + item.getItem_id() + ": ", e);
+        }
+    }
+
+    private void incrementActivity(long messages, long postReports, long userReports) {
+        try {
+            dailyActivityStatRepository.increment(LocalDate.now(), messages, postReports, userReports);
+        } catch (Exception e) {
+            log.error("Failed to update activity rollup: ", e);
+        }
+    }
+}
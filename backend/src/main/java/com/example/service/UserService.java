@@ -1,17 +1,27 @@
 package com.example.service;
 
 import java.util.List;
+import java.util.Map;
 import com.example.models.User;
+import com.example.projection.UserPublicView;
 import com.example.request.UpdateProfileRequest;
+import com.example.response.AdminUserRow;
 import com.example.response.UserProfileResponse;
 import org.springframework.stereotype.Service;
+import java.util.function.Consumer;
 
 public interface UserService{
     User registerUser(User user);
     User findUserById(Long userId) throws Exception;
     User findUserByEmail(String uni_mail);
     User updateUser(User user, Long userId) throws Exception;
-    List<User> searchUser(String query);
+    List<UserPublicView> searchUser(String query);
+    UserPublicView findUserPublicViewById(Long userId) throws Exception;
+    UserPublicView findUserPublicViewByEmail(String uni_mail) throws Exception;
+    Map<String, Object> getUserPage(int page, int size);
+    Map<String, Object> getAdminUserPage(int page, int size, String sort, String direction, Boolean banned,
+                                         Boolean verified, String role, String department, boolean includeTotal) throws Exception;
+    void streamAdminUsers(Consumer<AdminUserRow> sink);
     User findUserByJwt(String jwt) throws Exception;
     UserProfileResponse getUserProfile(String jwt) throws Exception;
     UserProfileResponse updateUserProfile(String jwt, UpdateProfileRequest request) throws Exception;
@@ -3,17 +3,30 @@ package com.example.service;
 import com.example.config.JwtProvider;
 import com.example.models.Role;
 import com.example.models.User;
+import com.example.projection.AdminUserView;
+import com.example.projection.UserPublicView;
 import com.example.repository.UserRepository;
 import com.example.request.UpdateProfileRequest;
+import com.example.response.AdminUserRow;
+import com.example.response.SliceResponse;
 import com.example.response.UserProfileResponse;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @Service
@@ -21,6 +34,16 @@ import lombok.extern.slf4j.Slf4j;
 public class UserServiceImplementation implements UserService {
 
     private final UserRepository userRepository;
+    private final FeedVersion feedVersion;
+    private final AvatarUrls avatarUrls;
+
+    // Sort keys accepted by the admin user list, mapped to entity attributes
+    private static final Map<String, String> ADMIN_USER_SORTS = Map.of(
+            "id", "user_id",
+            "name", "name",
+            "nickname", "nickname",
+            "createdAt", "created_at",
+            "department", "department");
 
     @Override
     public User registerUser(User user) {
@@ -98,7 +121,8 @@ public class UserServiceImplementation implements UserService {
         if(user.getPhoneNumber()!=null) {
             oldUser.setPhoneNumber(user.getPhoneNumber());
         }
-        if(user.getProfilePhotoUrl()!=null) {
+        // A form echoing the avatar link it was given must not replace the uploaded photo with that link
+        if(user.getProfilePhotoUrl()!=null && !avatarUrls.isAvatarLinkOf(oldUser.getUser_id(), user.getProfilePhotoUrl())) {
             oldUser.setProfilePhotoUrl(user.getProfilePhotoUrl());
         }
         if(user.getStudentId()!=null) {
@@ -109,15 +133,109 @@ public class UserServiceImplementation implements UserService {
         }
 
         User updatedUser = userRepository.save(oldUser);
+        // Feed cards show the owner's nickname and photo
+        feedVersion.bump();
         return updatedUser;
 
     }
 
     @Override
-    public List<User> searchUser(String query) {
+    @Transactional(readOnly = true)
+    public void streamAdminUsers(Consumer<AdminUserRow> sink) {
+        LocalDateTime now = User.banClockNow();
+        try (Stream<AdminUserView> users = userRepository.streamAdminViews()) {
+            users.forEach(user -> sink.accept(AdminUserRow.from(user, now)));
+        }
+    }
+
+    @Override
+    public List<UserPublicView> searchUser(String query) {
         return userRepository.searchUser(query);
     }
 
+    @Override
+    public UserPublicView findUserPublicViewById(Long userId) throws Exception {
+        return userRepository.findPublicViewById(userId)
+                .orElseThrow(() -> new Exception("user not exist with userid " + userId));
+    }
+
+    @Override
+    public UserPublicView findUserPublicViewByEmail(String uni_mail) throws Exception {
+        return userRepository.findPublicViewByUniMail(uni_mail)
+                .orElseThrow(() -> new Exception("user not exist with email " + uni_mail));
+    }
+
+    @Override
+    public Map<String, Object> getUserPage(int page, int size) {
+        Slice<UserPublicView> slice = userRepository.findPublicViews(PageRequest.of(page, size, Sort.by("user_id")));
+        return SliceResponse.of(slice.getContent(), slice, null);
+    }
+
+    @Override
+    public Map<String, Object> getAdminUserPage(int page, int size, String sort, String direction, Boolean banned,
+                                                Boolean verified, String role, String department, boolean includeTotal) throws Exception {
+        String sortProperty = ADMIN_USER_SORTS.get(sort);
+        if (sortProperty == null) {
+            throw new Exception("Invalid sort: " + sort);
+        }
+        Sort.Direction sortDirection;
+        if ("asc".equalsIgnoreCase(direction)) {
+            sortDirection = Sort.Direction.ASC;
+        } else if ("desc".equalsIgnoreCase(direction)) {
+            sortDirection = Sort.Direction.DESC;
+        } else {
+            throw new Exception("Invalid direction: " + direction);
+        }
+        Role roleFilter = null;
+        if (role != null && !role.isEmpty()) {
+            try {
+                roleFilter = Role.valueOf(role.toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new Exception("Invalid role: " + role);
+            }
+        }
+        String departmentFilter = (department != null && !department.trim().isEmpty()) ? department.trim() : null;
+
+        // user_id breaks ties so pages stay stable when the sort column repeats
+        Sort order = Sort.by(sortDirection, sortProperty);
+        if (!"user_id".equals(sortProperty)) {
+            order = order.and(Sort.by(sortDirection, "user_id"));
+        }
+        LocalDateTime now = User.banClockNow();
+        Slice<AdminUserView> slice = userRepository.findAdminViews(
+                roleFilter, verified, departmentFilter, banned, now, PageRequest.of(page, size, order));
+
+        List<Map<String, Object>> items = new ArrayList<>();
+        for (AdminUserView user : slice.getContent()) {
+            Map<String, Object> userMap = new HashMap<>();
+            userMap.put("id", user.getUser_id());
+            userMap.put("name", user.getName());
+            userMap.put("surname", user.getSurname());
+            userMap.put("nickname", user.getNickname());
+            userMap.put("email", user.getUniMail());
+            userMap.put("department", user.getDepartment() != null ? user.getDepartment() : "Unknown");
+            userMap.put("phoneNumber", user.getPhoneNumber());
+            userMap.put("studentId", user.getStudentId());
+            userMap.put("createdAt", user.getCreated_at() != null ? user.getCreated_at().toString() : null);
+            userMap.put("isBanned", Boolean.TRUE.equals(user.getBanned_status())
+                    && (user.getBanExpiresAt() == null || now.isBefore(user.getBanExpiresAt())));
+            userMap.put("isVerified", user.getIsVerified());
+            userMap.put("profilePhotoUrl", user.getProfilePhotoUrl());
+            userMap.put("role", user.getRole() != null ? user.getRole().toString() : null);
+            if (user.getBanExpiresAt() != null) {
+                userMap.put("banExpiresAt", user.getBanExpiresAt().toString());
+            }
+            if (user.getBanReason() != null) {
+                userMap.put("banReason", user.getBanReason());
+            }
+            items.add(userMap);
+        }
+
+        // The total needs a separate COUNT query, so it is only run when asked for
+        Long total = includeTotal ? userRepository.countAdminViews(roleFilter, verified, departmentFilter, banned, now) : null;
+        return SliceResponse.of(items, slice, total);
+    }
+
     @Override
     public User findUserByJwt(String jwt) throws Exception {
         try {
@@ -142,7 +260,8 @@ public class UserServiceImplementation implements UserService {
         response.setName(user.getName());
         response.setEmail(user.getUniMail());
         response.setDepartment(user.getDepartment() != null ? user.getDepartment() : "Bilgisayar Mühendisliği");
-        response.setProfilePhotoUrl(user.getProfilePhotoUrl() != null ? user.getProfilePhotoUrl() : "/assets/default_avatar.png");
+        String avatar = avatarUrls.of(user);
+        response.setProfilePhotoUrl(avatar != null ? avatar : "/assets/default_avatar.png");
         response.setPhoneNumber(user.getPhoneNumber());
         response.setCreatedAt(user.getCreated_at());
         response.setStudentId(user.getStudentId());
@@ -184,6 +303,8 @@ public class UserServiceImplementation implements UserService {
         }
         
         User updatedUser = userRepository.save(user);
+        // Feed cards show the owner's nickname and photo
+        feedVersion.bump();
         
         // Return updated profile
         return getUserProfile(jwt);
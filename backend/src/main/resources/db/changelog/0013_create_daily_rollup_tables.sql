@@ -0,0 +1,40 @@
+--liquibase formatted sql
+
+--changeset system:13
+-- Daily rollups for the admin time-series endpoint, maintained incrementally by the application
+CREATE TABLE daily_item_stats (
+    id BIGSERIAL PRIMARY KEY,
+    stat_date DATE NOT NULL,
+    type VARCHAR(255) NOT NULL,
+    category VARCHAR(255) NOT NULL,
+    location_id BIGINT NOT NULL DEFAULT 0,
+    created_count BIGINT NOT NULL DEFAULT 0,
+    deleted_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT uk_daily_item_stats_bucket UNIQUE (stat_date, type, category, location_id)
+);
+
+CREATE TABLE daily_activity_stats (
+    stat_date DATE PRIMARY KEY,
+    messages_sent BIGINT NOT NULL DEFAULT 0,
+    post_reports BIGINT NOT NULL DEFAULT 0,
+    user_reports BIGINT NOT NULL DEFAULT 0
+);
+
+--changeset system:13b
+-- One-time backfill from the raw tables (deletion dates were never recorded, so deleted_count starts at zero)
+INSERT INTO daily_item_stats (stat_date, type, category, location_id, created_count, deleted_count)
+SELECT CAST(date_shared AS DATE), type, category, COALESCE(location_id, 0), COUNT(*), 0
+FROM item
+WHERE date_shared IS NOT NULL
+GROUP BY CAST(date_shared AS DATE), type, category, COALESCE(location_id, 0);
+
+INSERT INTO daily_activity_stats (stat_date, messages_sent, post_reports, user_reports)
+SELECT day, SUM(messages), SUM(post_reports), SUM(user_reports)
+FROM (
+    SELECT CAST(sent_at AS DATE) AS day, 1 AS messages, 0 AS post_reports, 0 AS user_reports FROM messages WHERE sent_at IS NOT NULL
+    UNION ALL
+    SELECT CAST(created_at AS DATE), 0, 1, 0 FROM reports
+    UNION ALL
+    SELECT CAST(created_at AS DATE), 0, 0, 1 FROM user_reports
+) activity
+GROUP BY day;
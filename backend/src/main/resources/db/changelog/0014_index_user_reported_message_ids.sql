@@ -0,0 +1,5 @@
+--liquibase formatted sql
+
+--changeset system:14
+-- Reported-message lookups filter on message_id; without this every check scans the whole collection table
+CREATE INDEX IF NOT EXISTS idx_user_reported_message_ids_message_id ON user_reported_message_ids(message_id);
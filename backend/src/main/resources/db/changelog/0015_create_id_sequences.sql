@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset system:15
+-- Item, messages and message_images ids come from pooled sequences (allocation size 50) so inserts can be batched.
+-- Each sequence starts one block past the current max id so handed-out ranges never collide with existing rows.
+CREATE SEQUENCE IF NOT EXISTS item_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS messages_seq INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS message_images_seq INCREMENT BY 50;
+
+SELECT setval('item_seq', COALESCE((SELECT MAX(item_id) FROM item), 0) + 50);
+SELECT setval('messages_seq', COALESCE((SELECT MAX(message_id) FROM messages), 0) + 50);
+SELECT setval('message_images_seq', COALESCE((SELECT MAX(id) FROM message_images), 0) + 50);
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset system:16
+-- Per (user, partner) read position; unread = messages from the partner with message_id above it
+CREATE TABLE conversation_read_pointers (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL REFERENCES users(users_id) ON DELETE CASCADE,
+    partner_id BIGINT NOT NULL REFERENCES users(users_id) ON DELETE CASCADE,
+    last_read_message_id BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP,
+    CONSTRAINT uk_conversation_read_pointers_pair UNIQUE (user_id, partner_id)
+);
+
+-- Unread counts scan only the receiver's undeleted messages above the pointer
+CREATE INDEX idx_messages_unread_by_receiver ON messages(receiver_id, sender_id, message_id)
+    WHERE is_deleted_completely = false AND deleted_for_receiver = false;
+
+--changeset system:16b
+-- Seed pointers from the legacy is_read flag
+INSERT INTO conversation_read_pointers (user_id, partner_id, last_read_message_id, updated_at)
+SELECT receiver_id, sender_id, MAX(message_id), NOW()
+FROM messages
+WHERE is_read = true
+GROUP BY receiver_id, sender_id;
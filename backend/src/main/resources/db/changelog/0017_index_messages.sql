@@ -0,0 +1,23 @@
+--liquibase formatted sql
+
+--changeset system:17
+-- Canonical conversation key: the same value for both directions, so conversation reads become one index range
+ALTER TABLE messages ADD COLUMN IF NOT EXISTS conversation_key VARCHAR(41);
+
+UPDATE messages
+SET conversation_key = LEAST(sender_id, receiver_id) || ':' || GREATEST(sender_id, receiver_id)
+WHERE conversation_key IS NULL;
+
+ALTER TABLE messages ALTER COLUMN conversation_key SET NOT NULL;
+
+-- Conversation reads and "latest message per conversation" (MAX(message_id) GROUP BY conversation_key)
+CREATE INDEX idx_messages_conversation_key_message_id ON messages(conversation_key, message_id);
+
+-- The conversation list starts from every message the user sent or received
+CREATE INDEX idx_messages_sender_id ON messages(sender_id);
+CREATE INDEX idx_messages_receiver_id ON messages(receiver_id);
+
+-- Reply-tree walks (recursive CTE) follow reply_to_message_id
+CREATE INDEX idx_messages_reply_to_message_id ON messages(reply_to_message_id);
+
+-- Unread counts use the partial index idx_messages_unread_by_receiver from changeset 16
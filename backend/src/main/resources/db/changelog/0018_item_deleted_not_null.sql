@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset system:18
+-- Soft-delete flag is always set, so queries can say "deleted = false" and match the partial indexes below
+UPDATE item SET deleted = false WHERE deleted IS NULL;
+ALTER TABLE item ALTER COLUMN deleted SET DEFAULT false;
+ALTER TABLE item ALTER COLUMN deleted SET NOT NULL;
+
+-- Live items only: feed ordering, profile pages and type/category filters
+CREATE INDEX idx_item_live_date_shared ON item(date_shared) WHERE deleted = false;
+CREATE INDEX idx_item_live_users_id ON item(users_id) WHERE deleted = false;
+CREATE INDEX idx_item_live_type_category ON item(type, category) WHERE deleted = false;
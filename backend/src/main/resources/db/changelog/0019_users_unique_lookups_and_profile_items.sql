@@ -0,0 +1,14 @@
+--liquibase formatted sql
+
+--changeset system:19
+--preconditions onFail:HALT onError:HALT
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM (SELECT nickname FROM users WHERE nickname IS NOT NULL GROUP BY nickname HAVING COUNT(*) > 1) dup
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM (SELECT uni_mail FROM users WHERE uni_mail IS NOT NULL GROUP BY uni_mail HAVING COUNT(*) > 1) dup
+-- Nickname and email lookups (profile pages, login, JWT resolution) hit a unique index instead of scanning users
+CREATE UNIQUE INDEX uk_users_nickname ON users(nickname);
+CREATE UNIQUE INDEX uk_users_uni_mail ON users(uni_mail);
+
+-- Paginated profile listings read a user's live posts newest first straight off this index;
+-- it supersedes the single-column idx_item_live_users_id from changeset 18
+CREATE INDEX idx_item_live_users_id_date_shared ON item(users_id, date_shared DESC, item_id DESC) WHERE deleted = false;
+DROP INDEX IF EXISTS idx_item_live_users_id;
@@ -0,0 +1,10 @@
+--liquibase formatted sql
+
+--changeset system:20
+-- Short content hash of the profile photo; list responses link to /api/v1/users/{id}/avatar?v=<hash>
+-- so the photo is sent once and cached instead of being inlined into every row
+ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_version VARCHAR(16);
+
+UPDATE users
+SET avatar_version = substr(encode(sha256(convert_to(profile_photo_url, 'UTF8')), 'hex'), 1, 16)
+WHERE profile_photo_url IS NOT NULL AND avatar_version IS NULL;
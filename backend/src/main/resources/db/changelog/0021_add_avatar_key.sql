@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset system:21
+-- Uploaded avatars are stored in the blob store; the row keeps only the key of the original
+ALTER TABLE users ADD COLUMN IF NOT EXISTS avatar_key VARCHAR(255);
+
+-- Links to uploaded avatars are built at read time from avatar_key and avatar_version
+UPDATE users SET profile_photo_url = NULL WHERE avatar_key IS NOT NULL;
@@ -0,0 +1,47 @@
+--liquibase formatted sql
+
+--changeset system:22
+-- Post and message images stored once per distinct content, keyed by SHA-256 of the payload.
+-- item.image_hash and message_images.image_hash reference them; ref_count is the number of such rows
+CREATE TABLE IF NOT EXISTS stored_images (
+    hash               VARCHAR(64) PRIMARY KEY,
+    content            TEXT        NOT NULL,
+    ref_count          INTEGER     NOT NULL,
+    created_at         TIMESTAMP,
+    unreferenced_since TIMESTAMP
+);
+
+-- Reclaim job: images nobody references, oldest first
+CREATE INDEX IF NOT EXISTS idx_stored_images_unreferenced
+    ON stored_images (unreferenced_since)
+    WHERE ref_count = 0;
+
+ALTER TABLE item ADD COLUMN IF NOT EXISTS image_hash VARCHAR(64);
+ALTER TABLE message_images ADD COLUMN IF NOT EXISTS image_hash VARCHAR(64);
+
+-- Move existing inline images into the store, one row per distinct payload
+INSERT INTO stored_images (hash, content, ref_count, created_at)
+SELECT encode(sha256(convert_to(content, 'UTF8')), 'hex'), content, COUNT(*), now()
+FROM (
+    SELECT image AS content FROM item WHERE image IS NOT NULL AND image <> ''
+    UNION ALL
+    SELECT image_base64 FROM message_images WHERE image_base64 IS NOT NULL AND image_base64 <> ''
+) inline_images
+GROUP BY content
+ON CONFLICT (hash) DO NOTHING;
+
+UPDATE item
+SET image_hash = encode(sha256(convert_to(image, 'UTF8')), 'hex'), image = NULL
+WHERE image IS NOT NULL AND image <> '';
+
+UPDATE message_images
+SET image_hash = encode(sha256(convert_to(image_base64, 'UTF8')), 'hex'), image_base64 = NULL
+WHERE image_base64 IS NOT NULL AND image_base64 <> '';
+
+ALTER TABLE item
+    ADD CONSTRAINT fk_item_stored_image FOREIGN KEY (image_hash) REFERENCES stored_images (hash);
+ALTER TABLE message_images
+    ADD CONSTRAINT fk_message_images_stored_image FOREIGN KEY (image_hash) REFERENCES stored_images (hash);
+
+CREATE INDEX IF NOT EXISTS idx_item_image_hash ON item (image_hash);
+CREATE INDEX IF NOT EXISTS idx_message_images_image_hash ON message_images (image_hash);
@@ -0,0 +1,18 @@
+package com.example;
+
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+// Real Postgres for repository tests: the native queries (recursive CTEs, upserts, partial indexes) are Postgres-only
+@TestConfiguration(proxyBeanMethods = false)
+public class PostgresTestcontainer {
+
+    @Bean
+    @ServiceConnection
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+    }
+}
@@ -0,0 +1,38 @@
+package com.example;
+
+import com.example.models.Messages;
+import com.example.models.Role;
+import com.example.models.User;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.time.LocalDateTime;
+
+// Minimal rows for repository and service tests
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static User user(TestEntityManager entityManager, String nickname) {
+        User user = new User();
+        user.setName(nickname);
+        user.setSurname("Test");
+        user.setNickname(nickname);
+        user.setUniMail(nickname + "@std.iyte.edu.tr");
+        user.setPassword("secret");
+        user.setCreated_at(LocalDateTime.now());
+        user.setBanned_status(false);
+        user.setRole(Role.USER);
+        user.setIsVerified(true);
+        return entityManager.persist(user);
+    }
+
+    public static Messages message(TestEntityManager entityManager, User sender, User receiver, Messages replyTo) {
+        Messages message = new Messages();
+        message.setSender(sender);
+        message.setReceiver(receiver);
+        message.setMessageText("message from " + sender.getNickname());
+        message.setReplyToMessage(replyTo);
+        return entityManager.persist(message);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Each negotiated representation of a feed response gets its own strong validator
+class BinaryFormatETagTest {
+
+    private static final String TAG = "\"feed-abc-3\"";
+
+    @Test
+    void jsonIsTheDefault() {
+        assertThat(tagFor(null)).isEqualTo("\"feed-abc-3-json\"");
+        assertThat(tagFor("*/*")).isEqualTo("\"feed-abc-3-json\"");
+        assertThat(tagFor("application/json")).isEqualTo("\"feed-abc-3-json\"");
+        assertThat(tagFor("not a media type")).isEqualTo("\"feed-abc-3-json\"");
+    }
+
+    @Test
+    void binaryFormatsGetTheirOwnTag() {
+        assertThat(tagFor("application/cbor")).isEqualTo("\"feed-abc-3-cbor\"");
+        assertThat(tagFor("application/x-jackson-smile")).isEqualTo("\"feed-abc-3-smile\"");
+    }
+
+    @Test
+    void followsQualityAndSpecificity() {
+        assertThat(tagFor("application/cbor, */*;q=0.5")).isEqualTo("\"feed-abc-3-cbor\"");
+        assertThat(tagFor("*/*, application/x-jackson-smile")).isEqualTo("\"feed-abc-3-smile\"");
+        assertThat(tagFor("application/cbor;q=0.5, application/json")).isEqualTo("\"feed-abc-3-json\"");
+    }
+
+    private static String tagFor(String accept) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/posts");
+        if (accept != null) {
+            request.addHeader("Accept", accept);
+        }
+        return BinaryFormatConfig.representationETag(TAG, new ServletWebRequest(request));
+    }
+}
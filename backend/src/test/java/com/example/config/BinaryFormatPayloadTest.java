@@ -0,0 +1,133 @@
+package com.example.config;
+
+import com.example.response.FeedPost;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Payload size and serialization time of a 500-post feed page in JSON, CBOR and Smile, built the way
+// BinaryFormatConfig builds the converters. Sizes are asserted; timings are only reported
+class BinaryFormatPayloadTest {
+
+    private static final int POSTS = 500;
+    private static final int WARMUP_ROUNDS = 50;
+    private static final int TIMED_ROUNDS = 200;
+    private static final TypeReference<List<FeedPost>> FEED = new TypeReference<>() {
+    };
+
+    private final Map<String, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    BinaryFormatPayloadTest() {
+        mappers.put("json", Jackson2ObjectMapperBuilder.json().build());
+        mappers.put("cbor", Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build());
+        mappers.put("smile", Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build());
+    }
+
+    @Test
+    void textFeedIsSmallerInBinaryFormats() throws IOException {
+        Map<String, byte[]> payloads = report("500 posts, avatar links only", feed(false));
+
+        assertThat(payloads.get("cbor").length).isLessThan(payloads.get("json").length);
+        assertThat(payloads.get("smile").length).isLessThan(payloads.get("json").length);
+    }
+
+    @Test
+    void imageFeedIsDominatedByTheBase64Payload() throws IOException {
+        Map<String, byte[]> payloads = report("500 posts with inline images", feed(true));
+
+        // Binary formats keep base64 text as text, so they save little here; gzip does the work
+        assertThat(payloads.get("cbor").length).isLessThanOrEqualTo(payloads.get("json").length);
+        assertThat(payloads.get("smile").length).isLessThanOrEqualTo(payloads.get("json").length);
+    }
+
+    @Test
+    void everyFormatRoundTrips() throws IOException {
+        List<FeedPost> feed = feed(true);
+        for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+            byte[] bytes = mapper.getValue().writeValueAsBytes(feed);
+            assertThat(mapper.getValue().readValue(bytes, FEED)).as(mapper.getKey()).isEqualTo(feed);
+        }
+    }
+
+    private Map<String, byte[]> report(String label, List<FeedPost> feed) throws IOException {
+        Map<String, byte[]> payloads = new LinkedHashMap<>();
+        System.out.println(label + ":");
+        for (Map.Entry<String, ObjectMapper> mapper : mappers.entrySet()) {
+            byte[] bytes = mapper.getValue().writeValueAsBytes(feed);
+            payloads.put(mapper.getKey(), bytes);
+            System.out.printf("  %-5s %9d bytes, %9d gzipped, %8.1f us/serialization%n",
+                mapper.getKey(), bytes.length, gzip(bytes).length, microsPerWrite(mapper.getValue(), feed));
+        }
+        return payloads;
+    }
+
+    private static double microsPerWrite(ObjectMapper mapper, List<FeedPost> feed) throws IOException {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            mapper.writeValueAsBytes(feed);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < TIMED_ROUNDS; i++) {
+            mapper.writeValueAsBytes(feed);
+        }
+        return (System.nanoTime() - start) / 1_000.0 / TIMED_ROUNDS;
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<FeedPost> feed(boolean withImages) {
+        String[] types = {"LOST", "FOUND"};
+        String[] categories = {"Electronics", "Clothing", "Cards", "Accessories", "Other"};
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 9, 0);
+        List<FeedPost> posts = new ArrayList<>(POSTS);
+        for (int i = 0; i < POSTS; i++) {
+            long userId = 1000 + i % 37;
+            posts.add(new FeedPost(
+                (long) i + 1,
+                "Lost item number " + i,
+                "Left near the library entrance around noon, please message me if you have seen it. #" + i,
+                types[i % types.length],
+                categories[i % categories.length],
+                "Library",
+                start.plusMinutes(17L * i).toString(),
+                "user" + userId,
+                "user" + userId + "@std.iyte.edu.tr",
+                userId,
+                "http://localhost:8080/api/v1/users/" + userId + "/avatar?v=0123456789abcdef",
+                withImages ? image(i) : null,
+                withImages ? "image/jpeg" : null));
+        }
+        return posts;
+    }
+
+    // A deterministic ~6 KB stand-in for a photo
+    private static String image(int seed) {
+        byte[] bytes = new byte[6 * 1024];
+        long state = seed * 6364136223846793005L + 1442695040888963407L;
+        for (int i = 0; i < bytes.length; i++) {
+            state = state * 6364136223846793005L + 1442695040888963407L;
+            bytes[i] = (byte) (state >>> 56);
+        }
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+}
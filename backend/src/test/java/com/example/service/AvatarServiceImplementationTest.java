@@ -0,0 +1,108 @@
+package com.example.service;
+
+import com.example.models.User;
+import com.example.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+// Upload validation: format and pixel size come from the image header, before anything is decoded or stored
+class AvatarServiceImplementationTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+    private AvatarResizer avatarResizer;
+    private UserRepository userRepository;
+    private AvatarServiceImplementation avatarService;
+    private User user;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStore = new FileSystemBlobStore(root.toString());
+        avatarResizer = mock(AvatarResizer.class);
+        userRepository = mock(UserRepository.class);
+        avatarService = new AvatarServiceImplementation(blobStore, avatarResizer,
+            new AvatarUrls("https://iytebul.example"), userRepository, new FeedVersion());
+        user = new User();
+        user.setUser_id(7L);
+    }
+
+    @Test
+    void storesAValidImageAndKeepsOnlyTheKey() throws Exception {
+        String link = avatarService.storeAvatar(user, upload(png(400, 300)));
+
+        assertThat(user.getAvatarKey()).startsWith("avatars/7/").endsWith("/original.png");
+        assertThat(user.getAvatarVersion()).hasSize(16);
+        assertThat(user.getProfilePhotoUrl()).isNull();
+        assertThat(link).isEqualTo("https://iytebul.example/api/v1/users/7/avatar?v=" + user.getAvatarVersion());
+        assertThat(blobStore.exists(user.getAvatarKey())).isTrue();
+        verify(userRepository).save(user);
+        verify(avatarResizer).createSizes(user.getAvatarKey());
+    }
+
+    @Test
+    void rejectsImagesWiderThanTheLimit() throws IOException {
+        assertRejected(upload(png(4097, 10)));
+    }
+
+    @Test
+    void rejectsImagesTallerThanTheLimit() throws IOException {
+        assertRejected(upload(png(10, 4097)));
+    }
+
+    @Test
+    void acceptsImagesAtTheLimit() throws Exception {
+        avatarService.storeAvatar(user, upload(png(4096, 1)));
+
+        assertThat(user.getAvatarKey()).isNotNull();
+    }
+
+    @Test
+    void rejectsContentThatIsNotAnImage() {
+        assertRejected(new MockMultipartFile("profilePhoto", "photo.png", "image/png", "not an image".getBytes()));
+    }
+
+    @Test
+    void rejectsEmptyUploads() {
+        assertRejected(new MockMultipartFile("profilePhoto", "photo.png", "image/png", new byte[0]));
+    }
+
+    @Test
+    void rejectsFilesOverFiveMegabytes() {
+        assertRejected(new MockMultipartFile("profilePhoto", "photo.png", "image/png", new byte[5 * 1024 * 1024 + 1]));
+    }
+
+    private void assertRejected(MockMultipartFile file) {
+        assertThatThrownBy(() -> avatarService.storeAvatar(user, file)).isInstanceOf(IllegalArgumentException.class);
+        assertThat(user.getAvatarKey()).isNull();
+        verify(userRepository, never()).save(any());
+        verify(avatarResizer, never()).createSizes(anyString());
+    }
+
+    private static MockMultipartFile upload(byte[] image) {
+        return new MockMultipartFile("profilePhoto", "photo.png", "image/png", image);
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY), "png", out);
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemBlobStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemBlobStore blobStore;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        blobStore = new FileSystemBlobStore(root.toString());
+    }
+
+    @Test
+    void writesAndReadsBack() throws IOException {
+        blobStore.write("avatars/1/v1/original.png", stream("photo"), 1024);
+
+        Resource blob = blobStore.read("avatars/1/v1/original.png").orElseThrow();
+        assertThat(read(blob)).isEqualTo("photo");
+        assertThat(blobStore.exists("avatars/1/v1/original.png")).isTrue();
+        assertThat(blobStore.read("avatars/1/v1/256.jpg")).isEmpty();
+    }
+
+    @Test
+    void oversizedWriteFailsAndLeavesNothingBehind() throws IOException {
+        assertThatThrownBy(() -> blobStore.write("avatars/1/v1/original.png", stream("0123456789"), 9))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        assertThat(blobStore.exists("avatars/1/v1/original.png")).isFalse();
+        // The partial temp file is removed too
+        assertThat(filesUnder(root)).isZero();
+    }
+
+    @Test
+    void exactlyTheLimitIsAccepted() throws IOException {
+        blobStore.write("a/b", stream("0123456789"), 10);
+
+        assertThat(read(blobStore.read("a/b").orElseThrow())).isEqualTo("0123456789");
+    }
+
+    @Test
+    void failedOverwriteKeepsThePreviousBlob() throws IOException {
+        blobStore.write("a/b", stream("old"), 1024);
+
+        assertThatThrownBy(() -> blobStore.write("a/b", stream("much too long"), 5))
+            .isInstanceOf(IllegalArgumentException.class);
+
+        // The target is only replaced by a complete temp file
+        assertThat(read(blobStore.read("a/b").orElseThrow())).isEqualTo("old");
+        assertThat(filesUnder(root)).isEqualTo(1);
+    }
+
+    @Test
+    void overwriteReplacesTheContent() throws IOException {
+        blobStore.write("a/b", stream("old"), 1024);
+        blobStore.write("a/b", stream("new"), 1024);
+
+        assertThat(read(blobStore.read("a/b").orElseThrow())).isEqualTo("new");
+        assertThat(filesUnder(root)).isEqualTo(1);
+    }
+
+    @Test
+    void keysCannotEscapeTheRoot() {
+        assertThatThrownBy(() -> blobStore.write("../outside", stream("x"), 10))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> blobStore.read("a/../../outside"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void deleteRemovesAWholePrefix() throws IOException {
+        blobStore.write("avatars/1/v1/original.png", stream("a"), 10);
+        blobStore.write("avatars/1/v1/64.jpg", stream("b"), 10);
+        blobStore.write("avatars/1/v2/original.png", stream("c"), 10);
+
+        blobStore.delete("avatars/1/v1");
+
+        assertThat(blobStore.exists("avatars/1/v1/original.png")).isFalse();
+        assertThat(blobStore.exists("avatars/1/v1/64.jpg")).isFalse();
+        assertThat(blobStore.exists("avatars/1/v2/original.png")).isTrue();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(Resource resource) throws IOException {
+        try (InputStream in = resource.getInputStream()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static long filesUnder(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            return paths.filter(Files::isRegularFile).count();
+        }
+    }
+}
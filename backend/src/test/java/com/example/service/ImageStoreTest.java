@@ -0,0 +1,103 @@
+package com.example.service;
+
+import com.example.PostgresTestcontainer;
+import com.example.models.StoredImage;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Reference counting and reclaim of the content-addressed image store (Postgres upserts)
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestcontainer.class, ImageStore.class})
+class ImageStoreTest {
+
+    private static final String PHOTO = "data:image/png;base64,iVBORw0KGgoAAAANSUhEUgAAAAEAAAAB";
+    private static final String OTHER_PHOTO = "data:image/png;base64,R0lGODlhAQABAIAAAAAAAP";
+
+    @Autowired
+    private ImageStore imageStore;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void identicalContentIsStoredOnceAndCounted() {
+        List<StoredImage> first = imageStore.acquireAll(Arrays.asList(PHOTO, null, OTHER_PHOTO, PHOTO));
+        imageStore.acquire(PHOTO);
+
+        assertThat(first.get(1)).isNull();
+        assertThat(first.get(0).getHash()).isEqualTo(first.get(3).getHash()).isEqualTo(ImageStore.hashOf(PHOTO));
+
+        StoredImage photo = reload(PHOTO);
+        assertThat(photo.getContent()).isEqualTo(PHOTO);
+        assertThat(photo.getRefCount()).isEqualTo(3);
+        assertThat(reload(OTHER_PHOTO).getRefCount()).isEqualTo(1);
+    }
+
+    @Test
+    void releasingTheLastReferenceMarksTheImage() {
+        imageStore.acquireAll(List.of(PHOTO, PHOTO));
+        String hash = ImageStore.hashOf(PHOTO);
+
+        imageStore.release(List.of(hash));
+        StoredImage stillUsed = reload(PHOTO);
+        assertThat(stillUsed.getRefCount()).isEqualTo(1);
+        assertThat(stillUsed.getUnreferencedSince()).isNull();
+
+        imageStore.release(List.of(hash));
+        StoredImage unused = reload(PHOTO);
+        assertThat(unused.getRefCount()).isZero();
+        assertThat(unused.getUnreferencedSince()).isNotNull();
+    }
+
+    @Test
+    void reclaimDeletesOnlyImagesUnreferencedPastTheGracePeriod() {
+        imageStore.acquireAll(List.of(PHOTO, OTHER_PHOTO));
+        imageStore.release(List.of(ImageStore.hashOf(PHOTO), ImageStore.hashOf(OTHER_PHOTO)));
+        // Only PHOTO has been unused for longer than the grace period (one hour by default)
+        backdateUnreferenced(PHOTO);
+
+        imageStore.reclaimUnreferenced();
+
+        assertThat(reload(PHOTO)).isNull();
+        assertThat(reload(OTHER_PHOTO)).isNotNull();
+    }
+
+    @Test
+    void imageReacquiredDuringGraceSurvivesReclaim() {
+        imageStore.acquire(PHOTO);
+        imageStore.release(List.of(ImageStore.hashOf(PHOTO)));
+        backdateUnreferenced(PHOTO);
+        // Someone sends the same photo again before the job runs
+        imageStore.acquire(PHOTO);
+
+        imageStore.reclaimUnreferenced();
+
+        StoredImage photo = reload(PHOTO);
+        assertThat(photo).isNotNull();
+        assertThat(photo.getRefCount()).isEqualTo(1);
+        assertThat(photo.getUnreferencedSince()).isNull();
+    }
+
+    private void backdateUnreferenced(String content) {
+        entityManager.getEntityManager()
+            .createNativeQuery("UPDATE stored_images SET unreferenced_since = now() - interval '2 hours' WHERE hash = :hash")
+            .setParameter("hash", ImageStore.hashOf(content))
+            .executeUpdate();
+    }
+
+    // The upserts bypass the persistence context, so read the row fresh
+    private StoredImage reload(String content) {
+        entityManager.clear();
+        return entityManager.find(StoredImage.class, ImageStore.hashOf(content));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.service;
+
+import com.example.PostgresTestcontainer;
+import com.example.exception.NotFoundException;
+import com.example.exception.SenderNotFoundException;
+import com.example.models.MessageImage;
+import com.example.models.User;
+import com.example.request.SendMessageRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.example.TestData.user;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// How many JDBC statements sending a message costs, counted by Hibernate statistics
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestcontainer.class, MessageServiceImplementation.class, ImageStore.class})
+class MessageSendStatementsTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    private Statistics statistics;
+    private User sender;
+    private User receiver;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+            .unwrap(SessionFactory.class).getStatistics();
+        sender = user(entityManager, "sender");
+        receiver = user(entityManager, "receiver");
+        // Warm up: the first send of each kind fetches a block of 50 ids from the sequences
+        send(images(1, "warmup"));
+        entityManager.flush();
+    }
+
+    @Test
+    void textMessageTakesAtMostThreeStatements() {
+        long statements = statementsFor(List.of());
+
+        // Preflight (users, blocks, reply, item in one query) and the message insert; a sequence fetch at most
+        assertThat(statements).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    void missingReceiverIsReportedAsNotFound() {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setReceiverId(-42L);
+        request.setMessageText("hello");
+
+        assertThatThrownBy(() -> messageService.sendMessage(sender.getUniMail(), request))
+            .isInstanceOf(NotFoundException.class)
+            .isNotInstanceOf(SenderNotFoundException.class);
+    }
+
+    @Test
+    void unknownSenderIsReportedAsSenderNotFound() {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setReceiverId(receiver.getUser_id());
+        request.setMessageText("hello");
+
+        assertThatThrownBy(() -> messageService.sendMessage("nobody@std.iyte.edu.tr", request))
+            .isInstanceOf(SenderNotFoundException.class);
+    }
+
+    @Test
+    void tenImagesCostTheSameStatementsAsOne() {
+        long oneImage = statementsFor(images(1, "single"));
+        long tenImages = statementsFor(images(10, "album"));
+
+        // Preflight, message insert, one image upsert and one batched image insert - whatever the image count
+        assertThat(tenImages).isEqualTo(oneImage).isLessThanOrEqualTo(4);
+        assertThat(statistics.getEntityStatistics(MessageImage.class.getName()).getInsertCount()).isEqualTo(10);
+    }
+
+    private long statementsFor(List<String> images) {
+        statistics.clear();
+        send(images);
+        entityManager.flush();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private void send(List<String> images) {
+        SendMessageRequest request = new SendMessageRequest();
+        request.setReceiverId(receiver.getUser_id());
+        request.setMessageText("photos");
+        request.setImageBase64List(images);
+        messageService.sendMessage(sender.getUniMail(), request);
+    }
+
+    private static List<String> images(int count, String label) {
+        List<String> images = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            images.add("data:image/jpeg;base64," + label + i);
+        }
+        return images;
+    }
+}
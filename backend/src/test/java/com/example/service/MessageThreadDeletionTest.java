@@ -0,0 +1,96 @@
+package com.example.service;
+
+import com.example.PostgresTestcontainer;
+import com.example.models.Messages;
+import com.example.models.User;
+import com.example.models.UserReport;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static com.example.TestData.message;
+import static com.example.TestData.user;
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Deleting a message for everyone walks its whole reply tree (recursive CTE): reported messages are kept
+// soft deleted for the admins, everything else is removed, and kept rows lose links to removed parents
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({PostgresTestcontainer.class, MessageServiceImplementation.class, ImageStore.class})
+class MessageThreadDeletionTest {
+
+    @Autowired
+    private MessageService messageService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Test
+    void deepThreadKeepsReportedReplyAndRemovesTheRest() {
+        User alice = user(entityManager, "alice");
+        User bob = user(entityManager, "bob");
+
+        // root <- r1 <- r2 (reported) <- r3 <- r4, plus a second branch root <- sibling
+        Messages root = message(entityManager, alice, bob, null);
+        Messages r1 = message(entityManager, bob, alice, root);
+        Messages r2 = message(entityManager, alice, bob, r1);
+        Messages r3 = message(entityManager, bob, alice, r2);
+        Messages r4 = message(entityManager, alice, bob, r3);
+        Messages sibling = message(entityManager, bob, alice, root);
+        Messages unrelated = message(entityManager, alice, bob, null);
+
+        UserReport report = new UserReport();
+        report.setUser(alice);
+        report.setReporter(bob);
+        report.setReason("Harassment");
+        report.setReportedMessageIds(List.of(r2.getMessageId()));
+        entityManager.persist(report);
+        entityManager.flush();
+        entityManager.clear();
+
+        messageService.deleteMessageForEveryone(root.getMessageId(), alice);
+        entityManager.flush();
+        entityManager.clear();
+
+        for (Messages removed : List.of(root, r1, r3, r4, sibling)) {
+            assertThat(entityManager.find(Messages.class, removed.getMessageId()))
+                .as("message %d", removed.getMessageId())
+                .isNull();
+        }
+
+        Messages kept = entityManager.find(Messages.class, r2.getMessageId());
+        assertThat(kept).isNotNull();
+        assertThat(kept.getIsDeletedCompletely()).isTrue();
+        assertThat(kept.getDeletedForSender()).isTrue();
+        assertThat(kept.getDeletedForReceiver()).isTrue();
+        assertThat(kept.getDeletedAt()).isNotNull();
+        // Its parent r1 is gone, so the reply link is detached rather than left dangling
+        assertThat(kept.getReplyToMessage()).isNull();
+
+        Messages untouched = entityManager.find(Messages.class, unrelated.getMessageId());
+        assertThat(untouched).isNotNull();
+        assertThat(untouched.getIsDeletedCompletely()).isFalse();
+    }
+
+    @Test
+    void onlyTheSenderCanDeleteForEveryone() {
+        User alice = user(entityManager, "carol");
+        User bob = user(entityManager, "dave");
+        Messages root = message(entityManager, alice, bob, null);
+        Messages reply = message(entityManager, bob, alice, root);
+        entityManager.flush();
+        entityManager.clear();
+
+        messageService.deleteMessageForEveryone(root.getMessageId(), bob);
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(entityManager.find(Messages.class, root.getMessageId())).isNotNull();
+        assertThat(entityManager.find(Messages.class, reply.getMessageId())).isNotNull();
+    }
+}